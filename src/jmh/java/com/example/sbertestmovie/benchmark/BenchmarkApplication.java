@@ -0,0 +1,78 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.SberTestMovieApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Запуск контекста приложения для бенчмарков сервисного слоя.
+ * <p>
+ * По умолчанию вместо PostgreSQL используется встроенная база H2 в режиме совместимости с PostgreSQL,
+ * схема создаётся Hibernate, шина {@code LISTEN/NOTIFY} выключена, веб-сервер не запускается
+ * (кроме {@link #startServer(String...)}). Настройки передаются как
+ * аргументы командной строки, чтобы иметь приоритет над application.properties.
+ * Операции, использующие возможности PostgreSQL (например, {@code UPDATE ... RETURNING}),
+ * измеряются на реальной базе данных: её адрес задаётся системным свойством {@code benchmark.db.url}
+ * (вместе с {@code benchmark.db.username} и {@code benchmark.db.password}), а схема создаётся schema.sql.
+ * Свойства передаются в форки JMH, например: {@code -jvmArgsAppend -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/sbermovie_db}.
+ * </p>
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Запуск контекста приложения на встроенной базе данных или на PostgreSQL,
+     * если задано свойство {@code benchmark.db.url}.
+     *
+     * @param extraArgs дополнительные настройки в формате {@code --ключ=значение}
+     * @return запущенный контекст приложения
+     */
+    public static ConfigurableApplicationContext start(String... extraArgs) {
+        return run(WebApplicationType.NONE, extraArgs);
+    }
+
+    /**
+     * Запуск контекста приложения вместе с веб-сервером на случайном свободном порту.
+     * <p>
+     * Порт сервера доступен в свойстве окружения {@code local.server.port}.
+     * </p>
+     *
+     * @param extraArgs дополнительные настройки в формате {@code --ключ=значение}
+     * @return запущенный контекст приложения
+     */
+    public static ConfigurableApplicationContext startServer(String... extraArgs) {
+        String[] args = new String[extraArgs.length + 1];
+        args[0] = "--server.port=0";
+        System.arraycopy(extraArgs, 0, args, 1, extraArgs.length);
+        return run(WebApplicationType.SERVLET, args);
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType webApplicationType, String... extraArgs) {
+        String url = System.getProperty("benchmark.db.url");
+        String[] args = url == null ? new String[]{
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.sql.init.mode=never",
+                "--movies.cache.notify.enabled=false",
+                "--logging.level.root=WARN"
+        } : new String[]{
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=" + System.getProperty("benchmark.db.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("benchmark.db.password", ""),
+                "--logging.level.root=WARN"
+        };
+        String[] allArgs = new String[args.length + extraArgs.length];
+        System.arraycopy(args, 0, allArgs, 0, args.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+        return new SpringApplicationBuilder(SberTestMovieApplication.class)
+                .web(webApplicationType)
+                .run(allArgs);
+    }
+}
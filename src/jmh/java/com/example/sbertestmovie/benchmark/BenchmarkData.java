@@ -0,0 +1,66 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор тестовых данных для бенчмарков.
+ * <p>
+ * Данные детерминированы, чтобы результаты разных запусков были сравнимы.
+ * </p>
+ */
+public final class BenchmarkData {
+
+    private static final Genre[] GENRES = Genre.values();
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1950, 1, 1);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Создание списка сущностей фильмов с заполненными идентификаторами.
+     *
+     * @param count количество фильмов
+     * @return список сущностей фильмов
+     */
+    public static List<Movie> movies(int count) {
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Movie movie = new Movie(title(i), director(i), releaseDate(i), GENRES[i % GENRES.length]);
+            movie.setId(i + 1L);
+            movies.add(movie);
+        }
+        return movies;
+    }
+
+    /**
+     * Создание списка DTO-объектов фильмов.
+     *
+     * @param count количество фильмов
+     * @return список DTO-объектов фильмов
+     */
+    public static List<MovieDto> movieDtos(int count) {
+        List<MovieDto> movieDtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movieDtos.add(new MovieDto(title(i), director(i), releaseDate(i), GENRES[i % GENRES.length]));
+        }
+        return movieDtos;
+    }
+
+    private static String title(int i) {
+        return "Movie title number " + i;
+    }
+
+    private static String director(int i) {
+        return "Director " + (i % 997);
+    }
+
+    private static LocalDate releaseDate(int i) {
+        return FIRST_RELEASE.plusDays(i % 27000);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк пропускной способности создания отдельных фильмов при 1, 16 и 256 одновременных потоках,
+ * без объединения созданий и с объединением ({@code movies.create.coalesce.enabled}).
+ * <p>
+ * Выигрыш объединения определяется стоимостью фиксации транзакции, поэтому показателен запуск
+ * на PostgreSQL (см. {@link BenchmarkApplication}); на H2 в памяти фиксация почти бесплатна.
+ * Размеры пакетов видны в метрике {@code movies.create.batch.size}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieCreateBenchmark {
+
+    @Param({"false", "true"})
+    private boolean coalesce;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private MovieDto movieDto;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--movies.create.coalesce.enabled=" + coalesce);
+        movieService = context.getBean(MovieService.class);
+        movieDto = BenchmarkData.movieDtos(1).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MovieDto create1() {
+        return movieService.create(movieDto);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public MovieDto create16() {
+        return movieService.create(movieDto);
+    }
+
+    @Benchmark
+    @Threads(256)
+    public MovieDto create256() {
+        return movieService.create(movieDto);
+    }
+}
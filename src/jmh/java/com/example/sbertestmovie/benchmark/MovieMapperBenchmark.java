@@ -0,0 +1,53 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieMapper;
+import com.example.sbertestmovie.entity.Movie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк преобразований {@link MovieMapper} для страниц разного размера.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieMapperBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int pageSize;
+
+    private final MovieMapper movieMapper = new MovieMapper();
+    private Movie movie;
+    private MovieDto movieDto;
+    private Page<Movie> moviesPage;
+
+    @Setup
+    public void setUp() {
+        moviesPage = new PageImpl<>(BenchmarkData.movies(pageSize), PageRequest.of(0, pageSize), 1_000_000);
+        movie = moviesPage.getContent().get(0);
+        movieDto = BenchmarkData.movieDtos(1).get(0);
+    }
+
+    @Benchmark
+    public MovieDto toMovieDto() {
+        return movieMapper.toMovieDto(movie);
+    }
+
+    @Benchmark
+    public Movie toMovie() {
+        return movieMapper.toMovie(movieDto);
+    }
+
+    @Benchmark
+    public Page<MovieDto> toPageMovieDto() {
+        return movieMapper.toPageMovieDto(moviesPage);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieMapper;
+import com.example.sbertestmovie.repository.MovieRepository;
+import com.example.sbertestmovie.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк получения страницы фильмов через сущности и через DTO-проекцию на встроенной базе данных.
+ * <p>
+ * {@link #entities()} повторяет прежний путь: загрузка сущностей {@link com.example.sbertestmovie.entity.Movie}
+ * и их копирование в {@link MovieDto}. {@link #projection()} выбирает столбцы сразу в {@link MovieDto}.
+ * Расход памяти на операцию выводится профилировщиком {@code -prof gc}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieProjectionBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int pageSize;
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private MovieRepository movieRepository;
+    private MovieMapper movieMapper;
+    private PageRequest middlePage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        movieService = context.getBean(MovieService.class);
+        movieRepository = context.getBean(MovieRepository.class);
+        movieMapper = context.getBean(MovieMapper.class);
+        movieService.createAll(BenchmarkData.movieDtos(catalogSize));
+        middlePage = PageRequest.of(catalogSize / pageSize / 2, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MovieDto> entities() {
+        return movieMapper.toPageMovieDto(movieRepository.findAll(middlePage));
+    }
+
+    @Benchmark
+    public Page<MovieDto> projection() {
+        return movieService.getAllPageable(middlePage);
+    }
+}
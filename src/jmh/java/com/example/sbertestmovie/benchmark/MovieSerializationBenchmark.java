@@ -0,0 +1,74 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.config.CborConfiguration;
+import com.example.sbertestmovie.dto.MovieDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк сериализации {@link MovieDto} и страниц {@link MovieDto} в JSON и в компактный CBOR.
+ * <p>
+ * {@link ObjectMapper} настраиваются так же, как в Spring MVC (CBOR — через {@link CborConfiguration}).
+ * Размеры сериализованной страницы в обоих форматах выводятся при подготовке состояния.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovieSerializationBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int pageSize;
+
+    private ObjectWriter movieDtoWriter;
+    private ObjectWriter pageWriter;
+    private ObjectWriter cborMovieDtoWriter;
+    private ObjectWriter cborPageWriter;
+    private MovieDto movieDto;
+    private Page<MovieDto> movieDtosPage;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        movieDtoWriter = objectMapper.writerFor(MovieDto.class);
+        pageWriter = objectMapper.writer();
+        ObjectMapper cborObjectMapper = CborConfiguration.cborObjectMapper(Jackson2ObjectMapperBuilder.json());
+        cborMovieDtoWriter = cborObjectMapper.writerFor(MovieDto.class);
+        cborPageWriter = cborObjectMapper.writer();
+        movieDtosPage = new PageImpl<>(BenchmarkData.movieDtos(pageSize), PageRequest.of(0, pageSize), 1_000_000);
+        movieDto = movieDtosPage.getContent().get(0);
+        System.out.printf("%nPayload size, pageSize=%d: json=%d B, cbor=%d B%n", pageSize,
+                writePage().length, writePageCbor().length);
+    }
+
+    @Benchmark
+    public byte[] writeMovieDto() throws JsonProcessingException {
+        return movieDtoWriter.writeValueAsBytes(movieDto);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(movieDtosPage);
+    }
+
+    @Benchmark
+    public byte[] writeMovieDtoCbor() throws JsonProcessingException {
+        return cborMovieDtoWriter.writeValueAsBytes(movieDto);
+    }
+
+    @Benchmark
+    public byte[] writePageCbor() throws JsonProcessingException {
+        return cborPageWriter.writeValueAsBytes(movieDtosPage);
+    }
+}
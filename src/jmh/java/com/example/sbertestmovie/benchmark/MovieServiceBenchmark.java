@@ -0,0 +1,59 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк списочных операций {@link MovieService} на встроенной базе данных.
+ * <p>
+ * Сравнивает OFFSET-пагинацию (из середины каталога) и keyset-пагинацию для страниц разного размера.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieServiceBenchmark {
+
+    @Param({"20", "200", "2000"})
+    private int pageSize;
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private PageRequest middlePage;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        movieService = context.getBean(MovieService.class);
+        movieService.createAll(BenchmarkData.movieDtos(catalogSize));
+        middlePage = PageRequest.of(catalogSize / pageSize / 2, pageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MovieDto> getAllPageable() {
+        return movieService.getAllPageable(middlePage);
+    }
+
+    @Benchmark
+    public MovieSliceDto getAllAfter() {
+        return movieService.getAllAfter("", "id", pageSize);
+    }
+}
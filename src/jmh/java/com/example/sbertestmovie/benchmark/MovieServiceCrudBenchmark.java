@@ -0,0 +1,81 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк операций {@link MovieService} над одним фильмом.
+ * <p>
+ * Обновление выполняется запросом {@code UPDATE ... RETURNING}, который H2 не поддерживает,
+ * поэтому {@link #update()} запускается только на PostgreSQL (см. {@link BenchmarkApplication}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieServiceCrudBenchmark {
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private MovieService movieService;
+    private MovieDto movieDto;
+    private MovieDto patchDto;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        movieService = context.getBean(MovieService.class);
+        movieService.createAll(BenchmarkData.movieDtos(catalogSize));
+        movieDto = BenchmarkData.movieDtos(1).get(0);
+        patchDto = new MovieDto("Patched title", null, null, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, catalogSize + 1);
+    }
+
+    /**
+     * Чтение через кэш DTO-объектов.
+     */
+    @Benchmark
+    public MovieDto findById() {
+        return movieService.findById(randomId());
+    }
+
+    /**
+     * Чтение сущности из базы данных в обход кэша.
+     */
+    @Benchmark
+    public Movie getById() {
+        return movieService.getById(randomId());
+    }
+
+    /**
+     * Частичное обновление одним запросом. Требует PostgreSQL.
+     */
+    @Benchmark
+    public MovieDto update() {
+        return movieService.update(randomId(), patchDto);
+    }
+
+    @Benchmark
+    public MovieDto create() {
+        return movieService.create(movieDto);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.sbertestmovie.benchmark;
+
+import com.example.sbertestmovie.service.MovieService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарк выдачи большой страницы фильмов по HTTP: страница {@code GET /movies}, записываемая по мере чтения
+ * ({@code page}) и строящаяся целиком ({@code buffered-page}, потоковая запись отключена настройкой
+ * {@code movies.page.stream-min-size}), против потоковой выдачи {@code GET /movies/stream} в NDJSON,
+ * без сжатия и со сжатием gzip.
+ * <p>
+ * {@link #firstByte()} измеряет время до первого байта тела ответа, {@link #fullResponse()} — время
+ * получения всего ответа. Сервер работает в том же процессе, поэтому {@code -prof gc} показывает
+ * расход памяти на запрос вместе с сервером. Размеры ответов выводятся при подготовке состояния.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieStreamingBenchmark {
+
+    @Param({"page", "buffered-page", "stream"})
+    private String endpoint;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    @Param({"2000"})
+    private int pageSize;
+
+    @Param({"20000"})
+    private int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private URL url;
+    private final byte[] buffer = new byte[8192];
+
+    @Setup
+    public void setUp() throws IOException {
+        // firstByte() закрывает соединение, не дочитав ответ: предупреждения об обрыве не выводятся
+        context = BenchmarkApplication.startServer("--logging.level.org.springframework.web=ERROR",
+                "--movies.page.stream-min-size=" + (endpoint.equals("buffered-page") ? Integer.MAX_VALUE : 500));
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS movies_catalog (id INT PRIMARY KEY, version BIGINT NOT NULL, "
+                + "updated_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+        jdbcTemplate.update("MERGE INTO movies_catalog KEY (id) VALUES (1, 0, CURRENT_TIMESTAMP)");
+        context.getBean(MovieService.class).createAll(BenchmarkData.movieDtos(catalogSize));
+
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String path = endpoint.equals("stream") ? "/movies/stream" : "/movies";
+        url = new URL("http://localhost:" + port + path + "?size=" + pageSize + "&page=" + catalogSize / pageSize / 2);
+        System.out.printf("%nResponse size, endpoint=%s, encoding=%s: %d B%n", endpoint, encoding, fullResponse());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int firstByte() throws IOException {
+        HttpURLConnection connection = open();
+        try (InputStream body = connection.getInputStream()) {
+            return body.read();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Benchmark
+    public long fullResponse() throws IOException {
+        HttpURLConnection connection = open();
+        long size = 0;
+        try (InputStream body = connection.getInputStream()) {
+            for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+                size += read;
+            }
+        }
+        return size;
+    }
+
+    private HttpURLConnection open() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestProperty("Accept-Encoding", encoding);
+        if (connection.getResponseCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + connection.getResponseCode());
+        }
+        return connection;
+    }
+}
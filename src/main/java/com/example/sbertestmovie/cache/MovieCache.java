@@ -0,0 +1,222 @@
+package com.example.sbertestmovie.cache;
+
+import com.example.sbertestmovie.dto.VersionedMovieDto;
+import com.example.sbertestmovie.util.TransactionUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Локальный (in-process) кэш DTO-объектов фильмов по идентификатору.
+ * <p>
+ * Вместе с фильмом хранится версия его записи, чтобы условные запросы проверялись без обращения к базе данных.
+ * Кэш ограничен по количеству записей и по времени жизни записи, а также
+ * ведёт счётчики попаданий и промахов. Записи удаляются при изменении
+ * и удалении фильма: сразу и повторно после фиксации транзакции, чтобы
+ * параллельное чтение не вернуло в кэш незафиксированное старое значение.
+ * Кэш запоминает версию записи фильма после изменения и не сохраняет загруженные фильмы с версией меньше неё:
+ * такой фильм (например, прочитанный с отстающей реплики или до фиксации изменения на другом экземпляре)
+ * возвращается вызывающей стороне, но не кэшируется. Запомненные версии хранятся не дольше, чем записи кэша.
+ * Кроме того, записи удаляются ещё раз через {@code movies.cache.evict-again-after} после фиксации.
+ * Объекты, возвращаемые из кэша, не должны изменяться вызывающей стороной.
+ * Статистика кэша публикуется в метриках {@code cache.*} с тегом {@code cache=movies}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MovieCache implements MeterBinder {
+
+    private final Cache<Long, VersionedMovieDto> cache;
+    private final Cache<Long, Long> minVersions;
+    private final Duration evictAgainAfter;
+
+    /**
+     * Конструктор для инициализации кэша.
+     *
+     * @param maximumSize максимальное количество фильмов в кэше
+     * @param expireAfterWrite время жизни записи после её загрузки
+     * @param evictAgainAfter задержка повторного удаления изменённого фильма после фиксации; ноль — без повтора
+     */
+    @Autowired
+    public MovieCache(@Value("${movies.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${movies.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                      @Value("${movies.cache.evict-again-after:PT0S}") Duration evictAgainAfter) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.minVersions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.evictAgainAfter = evictAgainAfter;
+    }
+
+    /**
+     * Получение фильма из кэша с загрузкой при промахе.
+     * <p>
+     * Загруженный фильм с версией старше последней известной после изменения возвращается, но не кэшируется.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param loader функция загрузки фильма при отсутствии его в кэше
+     * @return DTO-объект фильма с версией его записи
+     */
+    public VersionedMovieDto get(Long id, Function<Long, VersionedMovieDto> loader) {
+        VersionedMovieDto[] loaded = new VersionedMovieDto[1];
+        VersionedMovieDto movie = cache.get(id, key -> {
+            loaded[0] = loader.apply(key);
+            return isStale(key, loaded[0]) ? null : loaded[0];
+        });
+        return movie != null ? movie : loaded[0];
+    }
+
+    /**
+     * Получение фильмов из кэша с загрузкой всех промахов одним вызовом.
+     * <p>
+     * Фильмы, которые загрузчик не вернул, отсутствуют в результате и не кэшируются.
+     * Загруженные фильмы с версией старше последней известной после изменения возвращаются, но не кэшируются.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов
+     * @param loader функция загрузки фильмов, отсутствующих в кэше
+     * @return DTO-объекты найденных фильмов с версиями их записей по идентификаторам
+     */
+    public Map<Long, VersionedMovieDto> getAll(Collection<Long> ids,
+                                               Function<Set<? extends Long>, Map<Long, VersionedMovieDto>> loader) {
+        Map<Long, VersionedMovieDto> stale = new HashMap<>();
+        Map<Long, VersionedMovieDto> movies = cache.getAll(ids, missedIds -> {
+            Map<Long, VersionedMovieDto> loaded = new HashMap<>(loader.apply(missedIds));
+            loaded.entrySet().removeIf(entry -> isStale(entry.getKey(), entry.getValue())
+                    && stale.put(entry.getKey(), entry.getValue()) == null);
+            return loaded;
+        });
+        if (stale.isEmpty()) {
+            return movies;
+        }
+        Map<Long, VersionedMovieDto> result = new HashMap<>(movies);
+        result.putAll(stale);
+        return result;
+    }
+
+    /**
+     * Удаление фильма из кэша.
+     * <p>
+     * Если метод вызван внутри транзакции, запись будет удалена повторно после её фиксации
+     * и ещё раз через {@code evictAgainAfter}.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     */
+    public void evict(Long id) {
+        log.debug("СОБЫТИЕ: Удаление фильма из кэша по id: {}", id);
+        cache.invalidate(id);
+        TransactionUtils.afterCommit(() -> cache.invalidate(id), evictAgainAfter);
+    }
+
+    /**
+     * Удаление изменённого фильма из кэша с запоминанием версии его записи после изменения.
+     * <p>
+     * Пока версия помнится, фильм с меньшей версией (например, прочитанный с отстающей реплики) не кэшируется.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param version версия записи фильма после изменения (для удалённого фильма — версия удалённой записи плюс один)
+     */
+    public void evict(Long id, long version) {
+        rememberVersion(id, version);
+        evict(id);
+    }
+
+    /**
+     * Удаление фильма из кэша, если закэшированная версия записи старше указанной.
+     * <p>
+     * Используется для изменений, сделанных другими экземплярами приложения. Проверка повторяется
+     * через {@code evictAgainAfter}: старая версия, загруженная за это время с отстающей реплики, тоже удаляется.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param version версия записи фильма после изменения
+     */
+    public void evictIfOlder(Long id, Long version) {
+        rememberVersion(id, version);
+        TransactionUtils.afterCommit(() -> cache.asMap().computeIfPresent(id,
+                (key, movie) -> movie.getVersion() < version ? null : movie), evictAgainAfter);
+    }
+
+    /**
+     * Очистка кэша.
+     */
+    public void invalidateAll() {
+        log.debug("СОБЫТИЕ: Очистка кэша фильмов");
+        cache.invalidateAll();
+    }
+
+    /**
+     * Запоминание наименьшей версии записи фильма, которую можно кэшировать. Вспомогательный метод.
+     * <p>
+     * Версия запоминается до удаления записи: загрузка, завершившаяся до этого, будет удалена вместе с записью.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param version версия записи фильма после изменения
+     */
+    private void rememberVersion(Long id, long version) {
+        minVersions.asMap().merge(id, version, Math::max);
+    }
+
+    /**
+     * Проверка, что загруженный фильм старше последней известной версии его записи. Вспомогательный метод.
+     *
+     * @param id идентификатор фильма
+     * @param movie загруженный фильм
+     * @return {@code true}, если фильм не должен кэшироваться
+     */
+    private boolean isStale(Long id, VersionedMovieDto movie) {
+        Long minVersion = minVersions.getIfPresent(id);
+        return movie != null && minVersion != null && movie.getVersion() < minVersion;
+    }
+
+    /**
+     * Получение статистики кэша (попадания, промахи, вытеснения).
+     *
+     * @return снимок статистики кэша
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Получение приблизительного количества фильмов в кэше.
+     *
+     * @return количество записей
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Регистрация метрик кэша (размер, попадания, промахи, вытеснения).
+     *
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "movies");
+    }
+}
@@ -0,0 +1,421 @@
+package com.example.sbertestmovie.cache;
+
+import com.example.sbertestmovie.dto.MovieChangesDto;
+import com.example.sbertestmovie.dto.MovieGroupDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.search.MovieSearchIndexLoader;
+import com.example.sbertestmovie.stats.MovieStats;
+import com.example.sbertestmovie.stats.MovieStatsLoader;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Шина распространения изменений фильмов между экземплярами приложения через PostgreSQL {@code LISTEN/NOTIFY}.
+ * <p>
+ * После фиксации изменения фильма сервисный слой публикует событие: идентификатор и версию записи
+ * после изменения (для удалённого фильма — версию удалённой записи плюс один), а также изменение
+ * количества фильмов в группах по жанру, году релиза и режиссёру. События накапливаются в памяти,
+ * причём для каждого фильма хранится только наибольшая версия, а изменения одной группы складываются,
+ * и с интервалом {@code movies.cache.notify.flush-interval} отправляются пакетом в канал
+ * {@code movies.cache.notify.channel} одним или несколькими вызовами {@code pg_notify}.
+ * </p>
+ * <p>
+ * Каждый экземпляр слушает канал на отдельном соединении и по событиям других экземпляров удаляет
+ * из {@link MovieCache} записи с версией меньше полученной, а из кэша второго уровня Hibernate —
+ * изменённые фильмы и результаты запросов. Изменения групп применяются к {@link MovieStats} (а через неё —
+ * к оценке количества фильмов), а изменённые фильмы перечитываются одним запросом в полнотекстовый индекс.
+ * Собственные события пропускаются: локальное состояние уже обновлено при изменении. После потери соединения
+ * уведомления могли быть пропущены, поэтому при переподключении локальные кэши очищаются целиком,
+ * а статистика и индекс строятся заново.
+ * </p>
+ * <p>
+ * Шина включается настройкой {@code movies.cache.notify.enabled}; при выключенной шине события
+ * не публикуются и канал не прослушивается.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieInvalidationBus {
+
+    /**
+     * Максимальная длина одного уведомления (ограничение PostgreSQL — 8000 байт).
+     */
+    public static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final MovieCache movieCache;
+    private final MovieSecondLevelCache secondLevelCache;
+    private final MovieStats movieStats;
+    private final MovieStatsLoader movieStatsLoader;
+    private final MovieSearchIndexLoader movieSearchIndexLoader;
+    private final boolean enabled;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MovieGroupDto, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * Конструктор для инициализации MovieInvalidationBus.
+     *
+     * @param jdbcTemplate шаблон для отправки уведомлений
+     * @param dataSource источник соединения для прослушивания канала
+     * @param movieCache локальный кэш DTO-объектов фильмов
+     * @param secondLevelCache кэш второго уровня Hibernate
+     * @param movieStats статистика каталога, к которой применяются изменения групп
+     * @param movieStatsLoader загрузчик статистики для её построения после переподключения
+     * @param movieSearchIndexLoader загрузчик полнотекстового индекса для перечитывания изменённых фильмов
+     * @param enabled включена ли шина
+     * @param channel имя канала уведомлений
+     */
+    @Autowired
+    public MovieInvalidationBus(JdbcTemplate jdbcTemplate, DataSource dataSource, MovieCache movieCache,
+                                MovieSecondLevelCache secondLevelCache, MovieStats movieStats,
+                                MovieStatsLoader movieStatsLoader, MovieSearchIndexLoader movieSearchIndexLoader,
+                                @Value("${movies.cache.notify.enabled:false}") boolean enabled,
+                                @Value("${movies.cache.notify.channel:movies_invalidation}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Некорректное имя канала уведомлений: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.movieCache = movieCache;
+        this.secondLevelCache = secondLevelCache;
+        this.movieStats = movieStats;
+        this.movieStatsLoader = movieStatsLoader;
+        this.movieSearchIndexLoader = movieSearchIndexLoader;
+        this.enabled = enabled;
+        this.channel = channel;
+    }
+
+    /**
+     * Публикация изменения фильма.
+     * <p>
+     * Событие отправляется не сразу, а со следующим пакетом; должно вызываться после фиксации транзакции.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param version версия записи фильма после изменения
+     */
+    public void publish(Long id, long version) {
+        if (enabled) {
+            pending.merge(id, version, Math::max);
+        }
+    }
+
+    /**
+     * Публикация создания фильма.
+     *
+     * @param created созданный фильм
+     */
+    public void publishCreated(Movie created) {
+        publish(created.getId(), 0);
+        publishCount(created, 1);
+    }
+
+    /**
+     * Публикация изменения фильма.
+     *
+     * @param previous фильм до изменения
+     * @param updated фильм после изменения
+     */
+    public void publishUpdated(Movie previous, Movie updated) {
+        publish(updated.getId(), updated.getVersion());
+        publishCount(previous, -1);
+        publishCount(updated, 1);
+    }
+
+    /**
+     * Публикация удаления фильма.
+     *
+     * @param deleted удалённый фильм
+     */
+    public void publishDeleted(Movie deleted) {
+        publish(deleted.getId(), deleted.getVersion() + 1);
+        publishCount(deleted, -1);
+    }
+
+    /**
+     * Отправка накопленных событий в канал уведомлений.
+     * <p>
+     * Если отправить пакет не удалось, его события возвращаются в очередь и отправляются со следующим пакетом.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${movies.cache.notify.flush-interval:PT0.05S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long id : pending.keySet()) {
+            Long version = pending.remove(id);
+            if (version != null) {
+                batch.put(id, version);
+            }
+        }
+        Map<MovieGroupDto, Long> counts = new HashMap<>();
+        for (MovieGroupDto group : pendingCounts.keySet()) {
+            Long count = pendingCounts.remove(group);
+            if (count != null && count != 0) {
+                counts.put(group, count);
+            }
+        }
+        try {
+            for (String payload : encode(nodeId, new MovieChangesDto(batch, counts), MAX_PAYLOAD_LENGTH)) {
+                jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> {
+                }, channel, payload);
+            }
+            log.debug("СОБЫТИЕ: Отправлены события изменения фильмов: {}", batch.size());
+        } catch (DataAccessException e) {
+            log.debug("ОШИБКА: Не удалось отправить события изменения фильмов: {}", e.getMessage());
+            batch.forEach((id, version) -> pending.merge(id, version, Math::max));
+            counts.forEach((group, count) -> pendingCounts.merge(group, count, Long::sum));
+        }
+    }
+
+    /**
+     * Обработка уведомления из канала.
+     * <p>
+     * Если изменённые фильмы не удалось перечитать в полнотекстовый индекс, индекс остаётся устаревшим
+     * до следующего изменения этих фильмов или до переподключения к каналу.
+     * </p>
+     *
+     * @param payload текст уведомления
+     */
+    public void onMessage(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        MovieChangesDto changes;
+        try {
+            changes = decode(payload.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            log.debug("ОШИБКА: Некорректное уведомление об изменении фильмов: {}", payload);
+            return;
+        }
+        Map<Long, Long> versions = changes.getVersions();
+        log.debug("СОБЫТИЕ: Получены события изменения фильмов: {}", versions.size());
+        versions.forEach(movieCache::evictIfOlder);
+        changes.getCounts().forEach((group, count) ->
+                movieStats.add(group.getGenre(), group.getYear(), group.getDirector(), count));
+        if (!versions.isEmpty()) {
+            secondLevelCache.evictAll(versions.keySet());
+            try {
+                movieSearchIndexLoader.reload(versions.keySet());
+            } catch (DataAccessException e) {
+                log.debug("ОШИБКА: Не удалось перечитать изменённые фильмы в поисковый индекс: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Запуск прослушивания канала уведомлений.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "movies-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Остановка прослушивания канала и отправка оставшихся событий.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Разбиение событий на тексты уведомлений вида {@code узел|id:версия,id:версия|жанр:год:изменение:режиссёр,...}.
+     * <p>
+     * Имя режиссёра кодируется как параметр URL, поэтому не содержит разделителей.
+     * </p>
+     *
+     * @param nodeId идентификатор экземпляра приложения
+     * @param changes версии фильмов по идентификаторам и изменения количества фильмов по группам
+     * @param maxLength максимальная длина одного уведомления
+     * @return тексты уведомлений
+     */
+    public static List<String> encode(String nodeId, MovieChangesDto changes, int maxLength) {
+        List<String> versionItems = new ArrayList<>();
+        changes.getVersions().forEach((id, version) -> versionItems.add(id + ":" + version));
+        List<String> countItems = new ArrayList<>();
+        changes.getCounts().forEach((group, count) -> countItems.add(group.getGenre().name() + ":" + group.getYear()
+                + ":" + count + ":" + URLEncoder.encode(group.getDirector(), StandardCharsets.UTF_8)));
+
+        List<String> payloads = new ArrayList<>();
+        StringBuilder versions = new StringBuilder();
+        StringBuilder counts = new StringBuilder();
+        int emptyLength = nodeId.length() + 2;
+        int versionIndex = 0;
+        int countIndex = 0;
+        while (versionIndex < versionItems.size() || countIndex < countItems.size()) {
+            boolean isVersion = versionIndex < versionItems.size();
+            String item = isVersion ? versionItems.get(versionIndex) : countItems.get(countIndex);
+            StringBuilder section = isVersion ? versions : counts;
+            int length = emptyLength + versions.length() + counts.length() + (section.length() > 0 ? 1 : 0);
+            if (versions.length() + counts.length() > 0 && length + item.length() > maxLength) {
+                payloads.add(nodeId + "|" + versions + "|" + counts);
+                versions.setLength(0);
+                counts.setLength(0);
+            }
+            if (section.length() > 0) {
+                section.append(',');
+            }
+            section.append(item);
+            if (isVersion) {
+                versionIndex++;
+            } else {
+                countIndex++;
+            }
+        }
+        if (versions.length() + counts.length() > 0) {
+            payloads.add(nodeId + "|" + versions + "|" + counts);
+        }
+        return payloads;
+    }
+
+    /**
+     * Разбор текста уведомления без идентификатора экземпляра приложения.
+     *
+     * @param items список версий фильмов и, через {@code |}, список изменений групп
+     * @return версии фильмов по идентификаторам и изменения количества фильмов по группам
+     * @throws IllegalArgumentException если текст уведомления некорректен
+     */
+    public static MovieChangesDto decode(String items) {
+        int separator = items.indexOf('|');
+        String versionItems = separator < 0 ? items : items.substring(0, separator);
+        Map<Long, Long> versions = new HashMap<>();
+        for (String item : versionItems.split(",")) {
+            int colon = item.indexOf(':');
+            if (colon > 0) {
+                versions.merge(Long.parseLong(item.substring(0, colon)), Long.parseLong(item.substring(colon + 1)),
+                        Math::max);
+            }
+        }
+        Map<MovieGroupDto, Long> counts = new HashMap<>();
+        if (separator >= 0) {
+            for (String item : items.substring(separator + 1).split(",")) {
+                String[] parts = item.split(":", 4);
+                if (parts.length == 4) {
+                    MovieGroupDto group = new MovieGroupDto(Genre.valueOf(parts[0]), Integer.parseInt(parts[1]),
+                            URLDecoder.decode(parts[3], StandardCharsets.UTF_8));
+                    counts.merge(group, Long.parseLong(parts[2]), Long::sum);
+                }
+            }
+        }
+        return new MovieChangesDto(versions, counts);
+    }
+
+    /**
+     * Учёт изменения количества фильмов в группе фильма. Вспомогательный метод.
+     *
+     * @param movie фильм
+     * @param count изменение количества фильмов
+     */
+    private void publishCount(Movie movie, long count) {
+        if (enabled) {
+            pendingCounts.merge(new MovieGroupDto(movie.getGenre(), movie.getReleaseDate().getYear(),
+                    movie.getDirector()), count, Long::sum);
+        }
+    }
+
+    /**
+     * Цикл прослушивания канала с переподключением при ошибках. Вспомогательный метод.
+     * <p>
+     * Для прослушивания на всё время работы занимается одно соединение из пула.
+     * </p>
+     */
+    private void listen() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (reconnect) {
+                    log.debug("СОБЫТИЕ: Переподключение к каналу уведомлений, очистка локальных кэшей");
+                    movieCache.invalidateAll();
+                    secondLevelCache.clear();
+                    movieStatsLoader.load();
+                    movieSearchIndexLoader.load();
+                }
+                log.debug("СОБЫТИЕ: Прослушивание канала уведомлений: {}", channel);
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications((int) POLL_TIMEOUT_MILLIS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                onMessage(notification.getParameter());
+                            }
+                        }
+                    }
+                } finally {
+                    // Соединение возвращается в пул и не должно продолжать получать уведомления
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("UNLISTEN *");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.debug("ОШИБКА: Прослушивание канала уведомлений прервано: {}", e.getMessage());
+                reconnect = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
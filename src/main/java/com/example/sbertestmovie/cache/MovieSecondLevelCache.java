@@ -0,0 +1,93 @@
+package com.example.sbertestmovie.cache;
+
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.util.TransactionUtils;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Сброс кэша второго уровня Hibernate после изменений фильмов в обход Hibernate.
+ * <p>
+ * Hibernate сам поддерживает кэш сущностей и кэш запросов в актуальном состоянии при изменениях
+ * через {@link jakarta.persistence.EntityManager}, но не знает об изменениях, выполненных через JDBC.
+ * После таких изменений фильмы удаляются из региона {@link Movie#CACHE_REGION}, а кэш результатов
+ * запросов очищается целиком. Как и {@link MovieCache}, записи удаляются сразу и повторно после
+ * фиксации транзакции, чтобы параллельное чтение не вернуло в кэш незафиксированное старое значение,
+ * и ещё раз через {@code movies.cache.evict-again-after}, чтобы не хранить значения и результаты запросов,
+ * загруженные за это время с отстающей реплики.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieSecondLevelCache {
+
+    private final Cache cache;
+    private final Duration evictAgainAfter;
+
+    /**
+     * Конструктор для инициализации MovieSecondLevelCache.
+     *
+     * @param entityManagerFactory фабрика, из которой берётся кэш второго уровня Hibernate
+     * @param evictAgainAfter задержка повторного сброса после фиксации; ноль — без повтора
+     */
+    @Autowired
+    public MovieSecondLevelCache(EntityManagerFactory entityManagerFactory,
+                                 @Value("${movies.cache.evict-again-after:PT0S}") Duration evictAgainAfter) {
+        this.cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        this.evictAgainAfter = evictAgainAfter;
+    }
+
+    /**
+     * Сброс кэша после изменения или удаления фильма.
+     *
+     * @param id идентификатор изменённого фильма
+     */
+    public void evict(Long id) {
+        evictAll(List.of(id));
+    }
+
+    /**
+     * Сброс кэша после изменения, удаления или добавления фильмов.
+     *
+     * @param ids идентификаторы изменённых фильмов; для добавленных фильмов может быть пустым
+     */
+    public void evictAll(Collection<Long> ids) {
+        log.debug("СОБЫТИЕ: Сброс кэша второго уровня для фильмов: {}", ids.size());
+        evictNow(ids);
+        TransactionUtils.afterCommit(() -> evictNow(ids), evictAgainAfter);
+    }
+
+    /**
+     * Очистка кэша фильмов и кэша запросов целиком, сразу и повторно через {@code evictAgainAfter}.
+     */
+    public void clear() {
+        log.debug("СОБЫТИЕ: Очистка кэша второго уровня для фильмов");
+        TransactionUtils.afterCommit(() -> {
+            cache.evictEntityData(Movie.class);
+            cache.evictQueryRegions();
+        }, evictAgainAfter);
+    }
+
+    /**
+     * Удаление фильмов из кэша сущностей и очистка кэша запросов. Вспомогательный метод.
+     *
+     * @param ids идентификаторы фильмов
+     */
+    private void evictNow(Collection<Long> ids) {
+        for (Long id : ids) {
+            cache.evictEntityData(Movie.class, id);
+        }
+        cache.evictQueryRegions();
+    }
+}
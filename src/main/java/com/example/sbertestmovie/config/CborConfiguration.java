@@ -0,0 +1,106 @@
+package com.example.sbertestmovie.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Конфигурация компактного двоичного формата ответов {@code application/cbor}.
+ * <p>
+ * Формат выбирается по заголовку {@code Accept} и используется теми же методами контроллера, что и JSON.
+ * В отличие от JSON, перечисления (в том числе жанр фильма) кодируются порядковым номером,
+ * а даты ({@link LocalDate}) — номером дня от 1970-01-01. Поэтому порядок констант
+ * {@link com.example.sbertestmovie.entity.Genre} является частью формата: новые жанры добавляются только в конец.
+ * Ключи словарей (например, в статистике по жанрам) остаются именами.
+ * </p>
+ */
+@Configuration
+public class CborConfiguration {
+
+    /**
+     * Конвертер HTTP-сообщений для {@code application/cbor}.
+     * <p>
+     * Заменяет конвертер CBOR по умолчанию, сохраняя общие настройки Jackson приложения.
+     * </p>
+     *
+     * @param builder построитель {@link ObjectMapper} с настройками приложения
+     * @return конвертер CBOR
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper(builder));
+    }
+
+    /**
+     * Создание {@link ObjectMapper} для компактного формата CBOR.
+     *
+     * @param builder построитель {@link ObjectMapper}; изменяется методом
+     * @return {@link ObjectMapper}, записывающий и читающий CBOR
+     */
+    public static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper objectMapper = builder.factory(new CBORFactory()).build();
+        SimpleModule compactModule = new SimpleModule("CompactCbor")
+                .addSerializer(LocalDate.class, new EpochDaySerializer())
+                .addDeserializer(LocalDate.class, new EpochDayDeserializer());
+        return objectMapper
+                .registerModule(compactModule)
+                .enable(SerializationFeature.WRITE_ENUMS_USING_INDEX);
+    }
+
+    /**
+     * Запись {@link LocalDate} номером дня от 1970-01-01.
+     */
+    private static final class EpochDaySerializer extends StdScalarSerializer<LocalDate> {
+
+        private EpochDaySerializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toEpochDay());
+        }
+    }
+
+    /**
+     * Чтение {@link LocalDate} из номера дня от 1970-01-01 или из строки ISO-8601.
+     */
+    private static final class EpochDayDeserializer extends StdScalarDeserializer<LocalDate> {
+
+        private EpochDayDeserializer() {
+            super(LocalDate.class);
+        }
+
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+            if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                String text = parser.getText().trim();
+                try {
+                    return LocalDate.parse(text);
+                } catch (DateTimeParseException e) {
+                    throw context.weirdStringException(text, LocalDate.class, e.getMessage());
+                }
+            }
+            return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+        }
+    }
+}
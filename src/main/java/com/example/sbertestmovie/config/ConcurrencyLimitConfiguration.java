@@ -0,0 +1,61 @@
+package com.example.sbertestmovie.config;
+
+import com.example.sbertestmovie.limit.AdaptiveConcurrencyLimit;
+import com.example.sbertestmovie.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Конфигурация адаптивного ограничения одновременных запросов к API фильмов.
+ * <p>
+ * Фильтр {@link ConcurrencyLimitFilter} применяется к {@code /movies} и вложенным путям
+ * и выполняется после фильтра метрик HTTP-запросов, поэтому отклонённые запросы видны в {@code http.server.requests}.
+ * Включается настройкой {@code movies.limit.enabled}; в реактивном варианте приложения не используется.
+ * </p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "movies.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfiguration {
+
+    /**
+     * Регистрация фильтра ограничения одновременных запросов.
+     *
+     * @param minLimit минимальное ограничение для чтений и изменений
+     * @param readInitial начальное ограничение для чтений
+     * @param readMax максимальное ограничение для чтений
+     * @param writeInitial начальное ограничение для изменений
+     * @param writeMax максимальное ограничение для изменений
+     * @param retryAfter рекомендуемая задержка перед повтором отклонённого запроса
+     * @param streamMinSize минимальный размер страницы {@code GET /movies}, которая записывается в ответ по мере чтения
+     * @param registry реестр метрик
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${movies.limit.min:4}") int minLimit,
+            @Value("${movies.limit.read.initial:50}") int readInitial,
+            @Value("${movies.limit.read.max:400}") int readMax,
+            @Value("${movies.limit.write.initial:20}") int writeInitial,
+            @Value("${movies.limit.write.max:200}") int writeMax,
+            @Value("${movies.limit.retry-after:1s}") Duration retryAfter,
+            @Value("${movies.page.stream-min-size:500}") int streamMinSize,
+            MeterRegistry registry) {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit(readInitial, minLimit, readMax),
+                new AdaptiveConcurrencyLimit(writeInitial, minLimit, writeMax),
+                retryAfter, streamMinSize, registry);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/movies", "/movies/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
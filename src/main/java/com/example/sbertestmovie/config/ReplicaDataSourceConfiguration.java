@@ -0,0 +1,94 @@
+package com.example.sbertestmovie.config;
+
+import com.example.sbertestmovie.datasource.ReadYourWritesFilter;
+import com.example.sbertestmovie.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Конфигурация чтения с реплик базы данных.
+ * <p>
+ * Включается заданием адресов реплик в {@code movies.datasource.replicas.urls} (см. профиль {@code replicas}).
+ * Вместо пула соединений по умолчанию создаётся {@link ReplicaRoutingDataSource}: пул основной базы данных
+ * по настройкам {@code spring.datasource.*} и по пулу на каждую реплику с теми же учётными данными
+ * и настройками {@code spring.datasource.hikari.*}. Соединения реплик открываются в режиме только для чтения.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "movies.datasource.replicas.urls")
+public class ReplicaDataSourceConfiguration {
+
+    /**
+     * Источник соединений с чтением с реплик.
+     *
+     * @param properties настройки основной базы данных
+     * @param environment окружение для чтения настроек пулов соединений
+     * @param replicaUrls адреса реплик
+     * @param selection способ выбора реплики
+     * @return источник соединений
+     */
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties properties, Environment environment,
+                                               @Value("${movies.datasource.replicas.urls}") List<String> replicaUrls,
+                                               @Value("${movies.datasource.replicas.selection:round-robin}")
+                                               ReplicaRoutingDataSource.Selection selection) {
+        HikariDataSource primary = createPool(properties, environment, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = createPool(properties, environment, replicaUrls.get(i), "replica-" + (i + 1));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, selection);
+    }
+
+    /**
+     * Регистрация фильтра чтения собственных изменений.
+     *
+     * @param window время после изменения, в течение которого чтения клиента выполняются на основной базе данных
+     * @return регистрация фильтра
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${movies.datasource.replicas.read-your-writes:PT5S}") Duration window) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(window));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    /**
+     * Создание пула соединений. Вспомогательный метод.
+     *
+     * @param properties настройки основной базы данных
+     * @param environment окружение для чтения настроек пула
+     * @param url адрес базы данных
+     * @param name имя пула
+     * @return пул соединений
+     */
+    private static HikariDataSource createPool(DataSourceProperties properties, Environment environment,
+                                               String url, String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
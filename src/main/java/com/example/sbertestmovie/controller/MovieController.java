@@ -1,12 +1,49 @@
 package com.example.sbertestmovie.controller;
 
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.MovieBatchResultDto;
 import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.dto.MovieMultiGetDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.dto.VersionedMovieDto;
+import com.example.sbertestmovie.exception.WrongParametersException;
 import com.example.sbertestmovie.service.MovieService;
-import lombok.AllArgsConstructor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 /**
  * REST-контроллер для управления фильмами.
@@ -17,42 +54,258 @@ import org.springframework.web.bind.annotation.*;
  *     обновление фильмов
  *     удаление фильмов.
  * Методы контроллера делегируют выполнение соответствующих операций в сервисный слой.
+ * Фильм и списки фильмов возвращаются с заголовками {@code ETag} и {@code Last-Modified},
+ * а на условные запросы с неизменившимися данными отвечают {@code 304 Not Modified} без тела.
+ * Кроме JSON, ответы могут отдаваться в компактном двоичном формате {@code application/cbor}
+ * (см. {@link com.example.sbertestmovie.config.CborConfiguration}); формат выбирается по заголовку {@code Accept}.
+ * В профиле {@code reactive} вместо него используется {@link ReactiveMovieController}.
+ * </p>
+ * <p>
+ * Для списков фильмов версия каталога проверяется сервисным слоем в одной транзакции только для чтения
+ * с выборкой фильмов, чтобы версия и фильмы читались с одного соединения; контроллер лишь сравнивает её
+ * с условными заголовками запроса.
  * </p>
  */
 @RestController
 @RequestMapping(path = "/movies")
-@AllArgsConstructor
+@Profile("!reactive")
 public class MovieController {
+    private static final String EXACT_COUNT = "exact";
+    private static final String ESTIMATED_COUNT = "estimate";
+
     private final MovieService movieService;
+    private final ObjectMapper objectMapper;
+    private final String defaultCount;
+    private final int streamMinSize;
+
+    /**
+     * Конструктор для инициализации MovieController.
+     *
+     * @param movieService сервис для работы с фильмами
+     * @param objectMapper преобразователь объектов в JSON
+     * @param defaultCount режим подсчёта общего количества фильмов, если параметр {@code count} не задан
+     * @param streamMinSize минимальный размер страницы, которая записывается в ответ по мере чтения
+     */
+    public MovieController(MovieService movieService, ObjectMapper objectMapper,
+                           @Value("${movies.page.count:exact}") String defaultCount,
+                           @Value("${movies.page.stream-min-size:500}") int streamMinSize) {
+        if (!isCountMode(defaultCount)) {
+            throw new IllegalArgumentException("Некорректный режим подсчёта количества фильмов: " + defaultCount);
+        }
+        this.movieService = movieService;
+        this.objectMapper = objectMapper;
+        this.defaultCount = defaultCount;
+        this.streamMinSize = streamMinSize;
+    }
 
     /**
-     * Получение списка фильмов с поддержкой пагинации.
+     * Получение списка фильмов с поддержкой пагинации и фильтрации.
      * <p>
      * Возвращает страницу с фильмами на основе предоставленного параметра
-     * пагинации.
+     * пагинации. Если заданы параметры фильтрации ({@code genre}, {@code director},
+     * {@code title}, {@code releasedFrom}, {@code releasedTo}), фильтрация выполняется
+     * в базе данных.
+     * </p>
+     * <p>
+     * Параметр {@code count=estimate} (или настройка {@code movies.page.count=estimate}) заменяет
+     * точный подсчёт общего количества фильмов оценкой; такая страница содержит поле
+     * {@code approximate}. Оценка есть только для всего каталога, поэтому запрос с фильтрацией
+     * и {@code count=estimate} отклоняется, а настройка {@code movies.page.count=estimate}
+     * на запросы с фильтрацией не действует: для них количество подсчитывается точно.
+     * </p>
+     * <p>
+     * Страница JSON без фильтрации и с точным подсчётом размером от {@code movies.page.stream-min-size} фильмов
+     * записывается в ответ по мере чтения
+     * фильмов из базы данных, без построения {@link Page} в памяти. Страницы меньшего размера по-прежнему
+     * строятся целиком и читаются через кэш запросов Hibernate.
      * </p>
      *
+     * @param filter условия фильтрации
      * @param pageable параметры пагинации (номер страницы, размер страницы и т.д.)
-     * @return страница объектов {@link MovieDto}, представляющих фильмы
+     * @param count режим подсчёта общего количества: {@code exact} или {@code estimate}
+     * @param webRequest текущий запрос для проверки условных заголовков
+     * @param response ответ, в который записывается потоковая страница
+     * @return страница объектов {@link MovieDto}, представляющих фильмы, или {@code null}, если каталог не изменился
+     * либо страница уже записана в ответ
+     * @throws WrongParametersException если режим подсчёта неизвестен или оценка запрошена вместе с фильтрацией
+     * @throws IOException если не удалось записать ответ
      */
     @GetMapping
-    public Page<MovieDto> findAll(@PageableDefault Pageable pageable) {
-        return movieService.getAllPageable(pageable);
+    public Page<MovieDto> findAll(MovieFilterDto filter, @PageableDefault Pageable pageable,
+                                  @RequestParam(required = false) String count,
+                                  WebRequest webRequest, HttpServletResponse response) throws IOException {
+        boolean estimateCount = isEstimateCount(count, filter);
+        if (filter.isEmpty() && !estimateCount && pageable.getPageSize() >= streamMinSize && isJsonAccepted(webRequest)) {
+            writePage(webRequest, response, pageable);
+            return null;
+        }
+        return movieService.getPageIfModified(filter, pageable, estimateCount,
+                catalog -> isCatalogNotModified(webRequest, catalog));
+    }
+
+    /**
+     * Потоковое получение страницы фильмов в формате NDJSON.
+     * <p>
+     * Принимает те же параметры пагинации, что и {@code GET /movies}, но без фильтрации.
+     * Фильмы страницы записываются в ответ по одному JSON-объекту на строку по мере чтения из базы данных,
+     * поэтому страница целиком не строится в памяти, а первые байты ответа отправляются до окончания выборки.
+     * Общее количество фильмов не подсчитывается.
+     * </p>
+     *
+     * @param pageable параметры пагинации (номер страницы, размер страницы и т.д.)
+     * @param webRequest текущий запрос для проверки условных заголовков
+     * @param response ответ, в который записываются фильмы
+     * @throws IOException если не удалось записать ответ
+     */
+    @GetMapping(path = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void findAllStream(@PageableDefault Pageable pageable, WebRequest webRequest,
+                              HttpServletResponse response) throws IOException {
+        writeNdjson(response.getOutputStream(), consumer -> movieService.streamPageIfModified(pageable, catalog -> {
+            if (isCatalogNotModified(webRequest, catalog)) {
+                return true;
+            }
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            return false;
+        }, consumer));
+    }
+
+    /**
+     * Получение списка фильмов с keyset-пагинацией.
+     * <p>
+     * Режим включается наличием параметра {@code after}. Для первого среза параметр передаётся пустым,
+     * для следующих — равным полю {@code next} предыдущего ответа. Стоимость запроса не зависит
+     * от глубины обхода, а общее количество фильмов не подсчитывается. Параметр {@code after} нельзя сочетать
+     * с параметром {@code ids}.
+     * </p>
+     *
+     * @param after курсор предыдущего среза
+     * @param sort поле сортировки для первого среза (id, title, releaseDate)
+     * @param size размер среза
+     * @param webRequest текущий запрос для проверки условных заголовков
+     * @return срез объектов {@link MovieDto} с курсором следующего среза или {@code null}, если каталог не изменился
+     */
+    @GetMapping(params = {"after", "!ids"})
+    public MovieSliceDto findAllAfter(@RequestParam String after,
+                                      @RequestParam(defaultValue = "id") String sort,
+                                      @RequestParam(defaultValue = "10") int size,
+                                      WebRequest webRequest) {
+        return movieService.getAllAfterIfModified(after, sort, size, catalog -> isCatalogNotModified(webRequest, catalog));
+    }
+
+    /**
+     * Выгрузка всех фильмов в формате NDJSON.
+     * <p>
+     * Фильмы читаются из базы данных серверным курсором и записываются в ответ по одному
+     * JSON-объекту на строку по мере чтения, поэтому расход памяти не зависит от размера каталога.
+     * </p>
+     *
+     * @return поток объектов {@link MovieDto}, по одному на строку
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> writeNdjson(outputStream, movieService::exportAll);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Полнотекстовый поиск фильмов по названию и режиссёру.
+     * <p>
+     * Поиск выполняется по триграммам и устойчив к опечаткам. Результаты упорядочены
+     * по убыванию релевантности.
+     * </p>
+     *
+     * @param q текст запроса
+     * @param limit максимальное количество результатов
+     * @return список объектов {@link MovieDto} найденных фильмов
+     */
+    @GetMapping("/search")
+    public List<MovieDto> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return movieService.search(q, limit);
+    }
+
+    /**
+     * Получение сводной статистики каталога фильмов.
+     * <p>
+     * Возвращает количество фильмов по жанрам, годам релиза и режиссёрам.
+     * Статистика поддерживается в памяти приложения, поэтому запрос не обращается к базе данных.
+     * </p>
+     *
+     * @param directors максимальное количество режиссёров с наибольшим числом фильмов
+     * @return объект {@link MovieStatsDto} со статистикой
+     */
+    @GetMapping("/stats")
+    public MovieStatsDto stats(@RequestParam(defaultValue = "100") int directors) {
+        return movieService.getStats(directors);
     }
 
     /**
      * Получение фильма по его идентификатору.
      * <p>
      * Возвращает объект {@link MovieDto} для фильма с указанным идентификатором.
+     * ETag строится по версии записи фильма, поэтому при совпадении с {@code If-None-Match}
+     * ответ {@code 304 Not Modified} отправляется без сериализации фильма.
      * </p>
      *
      * @param movieId идентификатор фильма, который нужно получить
-     * @return объект {@link MovieDto} с данными фильма
+     * @param webRequest текущий запрос для проверки условных заголовков
+     * @return объект {@link MovieDto} с данными фильма или {@code null}, если фильм не изменился
      */
-
     @GetMapping("/{movieId}")
-    public MovieDto find(@PathVariable Long movieId) {
-        return movieService.findById(movieId);
+    public MovieDto find(@PathVariable Long movieId, WebRequest webRequest) {
+        VersionedMovieDto movie = movieService.findVersionedById(movieId);
+        varyByAccept(webRequest);
+        if (webRequest.checkNotModified(eTag(movie.getVersion(), movie.getUpdatedAt()),
+                movie.getUpdatedAt().toEpochMilli())) {
+            return null;
+        }
+        return movie.getMovie();
+    }
+
+    /**
+     * Получение фильмов по списку идентификаторов.
+     * <p>
+     * Все фильмы возвращаются одним ответом в порядке запроса; фильмы, отсутствующие в кэше,
+     * загружаются одним запросом к базе данных. Отсутствующие идентификаторы перечисляются
+     * в поле {@code missing} и не приводят к ошибке всего запроса. Параметр {@code ids} нельзя сочетать
+     * с параметром keyset-пагинации {@code after}: такой запрос отклоняется со статусом {@code 400 Bad Request}.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов, которые нужно получить
+     * @return объект {@link MovieMultiGetDto} с найденными фильмами и отсутствующими идентификаторами
+     */
+    @GetMapping(params = {"ids", "!after"})
+    public MovieMultiGetDto findAllById(@RequestParam List<Long> ids) {
+        return movieService.findAllById(ids);
+    }
+
+    /**
+     * Отклонение запроса, в котором одновременно заданы параметры {@code ids} и {@code after}.
+     * <p>
+     * Без этого отображения такой запрос не подходит ни к получению фильмов по идентификаторам,
+     * ни к keyset-пагинации и обрабатывался бы как запрос обычной страницы фильмов.
+     * </p>
+     *
+     * @throws WrongParametersException всегда
+     */
+    @GetMapping(params = {"ids", "after"})
+    public void findAllByIdAfter() {
+        throw new WrongParametersException("Параметры ids и after нельзя использовать вместе");
+    }
+
+    /**
+     * Получение фильмов по списку идентификаторов, переданному в теле запроса.
+     * <p>
+     * Аналог {@code GET /movies?ids=...} для длинных списков, не помещающихся в адрес запроса.
+     * </p>
+     *
+     * @param ids JSON-массив идентификаторов фильмов, которые нужно получить
+     * @return объект {@link MovieMultiGetDto} с найденными фильмами и отсутствующими идентификаторами
+     */
+    @PostMapping(path = "/by-ids")
+    public MovieMultiGetDto findAllByIdInBody(@RequestBody List<Long> ids) {
+        return movieService.findAllById(ids);
     }
 
     /**
@@ -69,6 +322,22 @@ public class MovieController {
         return movieService.create(movieDto);
     }
 
+    /**
+     * Пакетное создание фильмов.
+     * <p>
+     * Принимает JSON-массив фильмов и вставляет их JDBC-пакетами. Каждый элемент проверяется
+     * отдельно: некорректные элементы попадают в список ошибок с их порядковым номером
+     * и не мешают созданию остальных.
+     * </p>
+     *
+     * @param movieDtos список объектов {@link MovieDto} с данными новых фильмов
+     * @return объект {@link MovieBatchResultDto} с количеством созданных фильмов и ошибками
+     */
+    @PostMapping(path = "/batch")
+    public MovieBatchResultDto createAll(@RequestBody List<MovieDto> movieDtos) {
+        return movieService.createAll(movieDtos);
+    }
+
     /**
      * Обновление существующего фильма.
      * <p>
@@ -97,4 +366,219 @@ public class MovieController {
     public void deleteById(@PathVariable Long movieId) {
         movieService.deleteById(movieId);
     }
+
+    /**
+     * Удаление фильмов по списку идентификаторов.
+     * <p>
+     * Удаляет все фильмы с указанными идентификаторами одним запросом к базе данных.
+     * Отсутствующие идентификаторы пропускаются.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов, которые нужно удалить
+     * @return количество удалённых фильмов
+     */
+    @DeleteMapping(params = "ids")
+    public int deleteAll(@RequestParam List<Long> ids) {
+        return movieService.deleteAllById(ids);
+    }
+
+    /**
+     * Запись страницы фильмов в ответ в формате JSON по мере чтения из базы данных. Вспомогательный метод.
+     * <p>
+     * Тело ответа совпадает с JSON-представлением {@link Page}: сначала записывается массив {@code content},
+     * затем остальные поля страницы, которые строятся по количеству записанных фильмов и общему количеству,
+     * подсчитанному после выборки. Начало страницы записывается, только если каталог изменился.
+     * </p>
+     *
+     * @param webRequest текущий запрос для проверки условных заголовков
+     * @param response ответ, в который записывается страница
+     * @param pageable параметры пагинации
+     * @throws IOException если не удалось записать ответ
+     */
+    private void writePage(WebRequest webRequest, HttpServletResponse response, Pageable pageable) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            int[] size = new int[1];
+            OptionalLong total;
+            // Один SequenceWriter на страницу: ObjectWriter.writeValue создаёт провайдер сериализаторов на каждый фильм
+            try (SequenceWriter writer = objectMapper.writerFor(MovieDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .writeValues(generator)) {
+                total = movieService.streamPageCountedIfModified(pageable, catalog -> {
+                    if (isCatalogNotModified(webRequest, catalog)) {
+                        return true;
+                    }
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    try {
+                        generator.writeStartObject();
+                        generator.writeArrayFieldStart("content");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return false;
+                }, movieDto -> {
+                    try {
+                        writer.write(movieDto);
+                        size[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (total.isEmpty()) {
+                return;
+            }
+            generator.writeEndArray();
+            ObjectNode metadata = objectMapper.valueToTree(
+                    new PageImpl<MovieDto>(Collections.nCopies(size[0], null), pageable, total.getAsLong()));
+            metadata.remove("content");
+            for (Iterator<Map.Entry<String, JsonNode>> fields = metadata.fields(); fields.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                generator.writeTree(field.getValue());
+            }
+            generator.writeEndObject();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Запись фильмов в поток в формате NDJSON. Вспомогательный метод.
+     * <p>
+     * Поток не сбрасывается после каждого фильма, чтобы данные уходили клиенту полными буферами
+     * и сжатие ответа оставалось эффективным. Ошибка записи (например, при обрыве соединения клиентом)
+     * прерывает чтение фильмов и пробрасывается как исходное {@link IOException}.
+     * </p>
+     *
+     * @param outputStream поток ответа
+     * @param source источник фильмов, передающий каждый фильм обработчику
+     * @throws IOException если не удалось записать ответ
+     */
+    private void writeNdjson(OutputStream outputStream, Consumer<Consumer<MovieDto>> source) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(MovieDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            source.accept(movieDto -> {
+                try {
+                    writer.writeValue(generator, movieDto);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Определение режима подсчёта общего количества фильмов для страницы. Вспомогательный метод.
+     *
+     * @param count значение параметра {@code count} или {@code null}, если параметр не задан
+     * @param filter условия фильтрации
+     * @return {@code true}, если общее количество нужно оценить, а не подсчитать точно
+     * @throws WrongParametersException если режим подсчёта неизвестен или оценка запрошена вместе с фильтрацией
+     */
+    private boolean isEstimateCount(String count, MovieFilterDto filter) {
+        if (count == null) {
+            return ESTIMATED_COUNT.equals(defaultCount) && filter.isEmpty();
+        }
+        if (!isCountMode(count)) {
+            throw new WrongParametersException("Параметр count должен быть равен " + EXACT_COUNT + " или " + ESTIMATED_COUNT);
+        }
+        if (ESTIMATED_COUNT.equals(count) && !filter.isEmpty()) {
+            throw new WrongParametersException("Оценка количества фильмов не поддерживается для запросов с фильтрацией");
+        }
+        return ESTIMATED_COUNT.equals(count);
+    }
+
+    /**
+     * Проверка, что значение является известным режимом подсчёта общего количества фильмов. Вспомогательный метод.
+     *
+     * @param count значение режима подсчёта
+     * @return {@code true} для {@code exact} и {@code estimate}
+     */
+    private static boolean isCountMode(String count) {
+        return EXACT_COUNT.equals(count) || ESTIMATED_COUNT.equals(count);
+    }
+
+    /**
+     * Проверка условного запроса к списку фильмов по версии каталога. Вспомогательный метод.
+     * <p>
+     * Вызывается сервисным слоем с версией каталога, прочитанной в одной транзакции с выборкой фильмов.
+     * </p>
+     *
+     * @param webRequest текущий запрос
+     * @param catalog версия каталога
+     * @return {@code true}, если каталог не изменился и ответ {@code 304 Not Modified} уже подготовлен
+     */
+    private static boolean isCatalogNotModified(WebRequest webRequest, CatalogVersionDto catalog) {
+        varyByAccept(webRequest);
+        return webRequest.checkNotModified(eTag(catalog.getVersion(), catalog.getUpdatedAt()),
+                catalog.getUpdatedAt().toEpochMilli());
+    }
+
+    /**
+     * Проверка, что ответ будет записан в формате JSON. Вспомогательный метод.
+     * <p>
+     * Форматы из заголовка {@code Accept} перебираются в порядке предпочтения, и выбирается первый
+     * совместимый с JSON или CBOR, как при выборе конвертера ответа. Без заголовка ответ записывается в JSON.
+     * </p>
+     *
+     * @param webRequest текущий запрос
+     * @return {@code true}, если клиент получит JSON
+     */
+    private static boolean isJsonAccepted(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+            for (MediaType mediaType : mediaTypes) {
+                if (mediaType.includes(MediaType.APPLICATION_JSON)) {
+                    return true;
+                }
+                if (mediaType.includes(MediaType.APPLICATION_CBOR)) {
+                    return false;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Добавление заголовка {@code Vary: Accept} к ответу с ETag. Вспомогательный метод.
+     * <p>
+     * ETag не зависит от формата ответа (JSON, CBOR) и его сжатия, поэтому HTTP-кэши должны хранить
+     * представления разных форматов раздельно.
+     * </p>
+     *
+     * @param webRequest текущий запрос
+     */
+    private static void varyByAccept(WebRequest webRequest) {
+        if (webRequest instanceof ServletWebRequest servletWebRequest && servletWebRequest.getResponse() != null) {
+            servletWebRequest.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+
+    /**
+     * Построение слабого ETag по версии и времени изменения. Вспомогательный метод.
+     * <p>
+     * Время изменения входит в ETag, чтобы версии не совпадали после пересоздания таблицы.
+     * ETag слабый, так как одни и те же данные отдаются в разных форматах и кодировках,
+     * а Tomcat не сжимает ответы со строгим ETag.
+     * </p>
+     *
+     * @param version версия
+     * @param updatedAt время последнего изменения
+     * @return значение заголовка {@code ETag}
+     */
+    private static String eTag(long version, Instant updatedAt) {
+        return "W/\"" + version + "-" + Long.toHexString(updatedAt.toEpochMilli()) + "\"";
+    }
 }
@@ -0,0 +1,94 @@
+package com.example.sbertestmovie.controller;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.service.ReactiveMovieService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реактивный REST-контроллер для управления фильмами.
+ * <p>
+ * Используется в профиле {@code reactive} вместо {@link MovieController} и обслуживает
+ * те же пути на WebFlux. Списки возвращаются потоком: в формате NDJSON каждый фильм
+ * отправляется клиенту по мере чтения из базы данных с учётом обратного давления.
+ * </p>
+ */
+@RestController
+@RequestMapping(path = "/movies")
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveMovieController {
+    private final ReactiveMovieService reactiveMovieService;
+
+    /**
+     * Получение страницы фильмов.
+     *
+     * @param page номер страницы (начиная с нуля)
+     * @param size размер страницы
+     * @return поток объектов {@link MovieDto}
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<MovieDto> findAll(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "10") int size) {
+        return reactiveMovieService.getAll(page, size);
+    }
+
+    /**
+     * Выгрузка всех фильмов в формате NDJSON.
+     *
+     * @return поток объектов {@link MovieDto}, по одному на строку
+     */
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MovieDto> export() {
+        return reactiveMovieService.exportAll();
+    }
+
+    /**
+     * Получение фильма по его идентификатору.
+     *
+     * @param movieId идентификатор фильма, который нужно получить
+     * @return объект {@link MovieDto} с данными фильма
+     */
+    @GetMapping("/{movieId}")
+    public Mono<MovieDto> find(@PathVariable Long movieId) {
+        return reactiveMovieService.findById(movieId);
+    }
+
+    /**
+     * Создание нового фильма.
+     *
+     * @param movieDto объект {@link MovieDto}, содержащий данные для нового фильма
+     * @return объект {@link MovieDto} с данными созданного фильма
+     */
+    @PostMapping
+    public Mono<MovieDto> create(@RequestBody MovieDto movieDto) {
+        return reactiveMovieService.create(movieDto);
+    }
+
+    /**
+     * Обновление существующего фильма.
+     *
+     * @param movieId идентификатор фильма, который нужно обновить
+     * @param movieDto объект {@link MovieDto}, содержащий обновлённые данные фильма
+     * @return объект {@link MovieDto} с обновлёнными данными фильма
+     */
+    @PatchMapping(path = "/{movieId}")
+    public Mono<MovieDto> update(@PathVariable Long movieId, @RequestBody MovieDto movieDto) {
+        return reactiveMovieService.update(movieId, movieDto);
+    }
+
+    /**
+     * Удаление фильма по его идентификатору.
+     *
+     * @param movieId идентификатор фильма, который нужно удалить
+     * @return сигнал завершения удаления
+     */
+    @DeleteMapping(path = "/{movieId}")
+    public Mono<Void> deleteById(@PathVariable Long movieId) {
+        return reactiveMovieService.deleteById(movieId);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.sbertestmovie.datasource;
+
+import com.example.sbertestmovie.util.RequestUtils;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Фильтр, обеспечивающий чтение собственных изменений клиента при чтении с реплик.
+ * <p>
+ * Изменяющий запрос (любой, кроме чтений по {@link RequestUtils#isRead}) выполняется целиком на основной базе данных,
+ * а клиенту выставляется cookie {@value #COOKIE_NAME} со временем окончания окна {@code movies.datasource.replicas.read-your-writes}.
+ * Пока окно не истекло, чтения этого клиента тоже выполняются на основной базе данных, поэтому
+ * отставание реплик не скрывает от него только что сделанные изменения.
+ * </p>
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /**
+     * Имя cookie со временем (в миллисекундах от 1970-01-01), до которого чтения выполняются на основной базе данных.
+     */
+    public static final String COOKIE_NAME = "movies-primary-until";
+
+    private final Duration window;
+
+    /**
+     * Конструктор для инициализации ReadYourWritesFilter.
+     *
+     * @param window время после изменения, в течение которого чтения клиента выполняются на основной базе данных
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean write = !RequestUtils.isRead(request);
+        if (write) {
+            // Cookie выставляется до выполнения запроса: после записи тела ответа заголовки уже отправлены
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(System.currentTimeMillis() + window.toMillis()));
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        }
+        ReplicaRoutingDataSource.setPrimaryRequired(write || isWithinWindow(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+    }
+
+    /**
+     * Проверка, что клиент недавно выполнял изменения. Вспомогательный метод.
+     *
+     * @param request текущий запрос
+     * @return {@code true}, если окно чтения с основной базы данных ещё не истекло
+     */
+    private static boolean isWithinWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > System.currentTimeMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.sbertestmovie.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений, направляющий транзакции только для чтения на реплики базы данных.
+ * <p>
+ * Соединение выдаётся лениво и берётся из пула только при первом запросе к базе данных,
+ * когда уже известно, помечена ли транзакция как {@code readOnly}. Транзакции только для чтения
+ * получают соединение одной из реплик (по кругу или с наименьшим количеством занятых соединений),
+ * остальные запросы — соединение основной базы данных. Если соединение реплики получить не удалось,
+ * используется основная база данных.
+ * </p>
+ * <p>
+ * Реплики отстают от основной базы данных, поэтому после изменения чтения нужно временно выполнять
+ * на основной базе данных: для текущего потока это включается {@link #setPrimaryRequired(boolean)}
+ * (см. {@link ReadYourWritesFilter}).
+ * </p>
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    /**
+     * Способ выбора реплики.
+     */
+    public enum Selection {
+        /**
+         * Реплики по очереди.
+         */
+        ROUND_ROBIN,
+        /**
+         * Реплика с наименьшим количеством занятых соединений.
+         */
+        LEAST_CONNECTIONS
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final List<HikariDataSource> replicas;
+    private final Selection selection;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Конструктор для инициализации ReplicaRoutingDataSource.
+     *
+     * @param primary пул соединений основной базы данных
+     * @param replicas пулы соединений реплик
+     * @param selection способ выбора реплики
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas, Selection selection) {
+        super(primary);
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Не задано ни одной реплики");
+        }
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.selection = selection;
+        setReadOnlyDataSource(new AbstractDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return getReadOnlyConnection();
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                throw new SQLException("Реплики используют учётные данные основной базы данных");
+            }
+        });
+    }
+
+    /**
+     * Включение или отключение чтения с основной базы данных для текущего потока.
+     *
+     * @param required {@code true}, если транзакции только для чтения должны выполняться на основной базе данных
+     */
+    public static void setPrimaryRequired(boolean required) {
+        if (required) {
+            PRIMARY_REQUIRED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    /**
+     * Проверка, должны ли чтения текущего потока выполняться на основной базе данных.
+     *
+     * @return {@code true}, если реплики для текущего потока не используются
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * Закрытие пулов соединений основной базы данных и реплик.
+     */
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+        primary.close();
+    }
+
+    /**
+     * Получение соединения для транзакции только для чтения. Вспомогательный метод.
+     *
+     * @return соединение реплики или основной базы данных
+     * @throws SQLException если не удалось получить соединение основной базы данных
+     */
+    private Connection getReadOnlyConnection() throws SQLException {
+        if (isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        HikariDataSource replica = selectReplica();
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.debug("ОШИБКА: Реплика {} недоступна, чтение с основной базы данных: {}", replica.getPoolName(),
+                    e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Выбор реплики. Вспомогательный метод.
+     *
+     * @return пул соединений выбранной реплики
+     */
+    private HikariDataSource selectReplica() {
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            return replicas.stream()
+                    .min(Comparator.comparingInt(ReplicaRoutingDataSource::activeConnections))
+                    .orElseThrow();
+        }
+        return replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+    }
+
+    /**
+     * Получение количества занятых соединений пула. Вспомогательный метод.
+     *
+     * @param dataSource пул соединений
+     * @return количество занятых соединений; ноль, если пул ещё не запущен
+     */
+    private static int activeConnections(HikariDataSource dataSource) {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return pool == null ? 0 : pool.getActiveConnections();
+    }
+}
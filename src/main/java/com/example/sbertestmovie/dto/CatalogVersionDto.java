@@ -0,0 +1,28 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Объект передачи данных (DTO), представляющий версию каталога фильмов.
+ * <p>
+ * Версия увеличивается при каждом изменении таблицы фильмов и используется
+ * для условных GET-запросов к спискам фильмов.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class CatalogVersionDto {
+
+    /**
+     * Версия каталога.
+     */
+    private long version;
+
+    /**
+     * Время последнего изменения каталога.
+     */
+    private Instant updatedAt;
+}
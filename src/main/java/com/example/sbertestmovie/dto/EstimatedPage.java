@@ -0,0 +1,47 @@
+package com.example.sbertestmovie.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * Страница, общее количество элементов которой может быть оценкой.
+ * <p>
+ * Сериализуется так же, как обычная страница, с дополнительным полем {@code approximate}:
+ * если оно равно {@code true}, значения {@code totalElements} и {@code totalPages} приблизительны.
+ * Аннотация {@link JsonSerialize} отменяет сериализатор, который Spring Data назначает {@link PageImpl}
+ * и который записывает только свойства базового класса.
+ * </p>
+ *
+ * @param <T> тип элементов страницы
+ */
+@JsonSerialize(using = JsonSerializer.None.class)
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean approximate;
+
+    /**
+     * Конструктор для создания страницы.
+     *
+     * @param content элементы страницы
+     * @param pageable параметры пагинации
+     * @param total точное или оценочное общее количество элементов
+     * @param approximate признак того, что общее количество является оценкой
+     */
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean approximate) {
+        super(content, pageable, total);
+        this.approximate = approximate;
+    }
+
+    /**
+     * Признак того, что общее количество элементов является оценкой.
+     *
+     * @return {@code true}, если общее количество приблизительно
+     */
+    public boolean isApproximate() {
+        return approximate;
+    }
+}
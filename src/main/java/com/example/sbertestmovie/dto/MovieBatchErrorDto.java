@@ -0,0 +1,22 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Объект передачи данных (DTO), описывающий ошибку создания одного фильма в пакете.
+ */
+@Data
+@AllArgsConstructor
+public class MovieBatchErrorDto {
+
+    /**
+     * Порядковый номер фильма в переданном пакете (начиная с нуля).
+     */
+    private int index;
+
+    /**
+     * Сообщение об ошибке.
+     */
+    private String message;
+}
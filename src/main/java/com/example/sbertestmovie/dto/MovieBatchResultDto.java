@@ -0,0 +1,28 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Объект передачи данных (DTO), представляющий результат пакетного создания фильмов.
+ * <p>
+ * Содержит количество созданных фильмов и ошибки по отдельным элементам пакета.
+ * Ошибка в одном элементе не отменяет создание остальных.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieBatchResultDto {
+
+    /**
+     * Количество созданных фильмов.
+     */
+    private int created;
+
+    /**
+     * Ошибки по элементам пакета, которые не удалось создать.
+     */
+    private List<MovieBatchErrorDto> errors;
+}
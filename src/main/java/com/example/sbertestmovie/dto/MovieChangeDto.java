@@ -0,0 +1,27 @@
+package com.example.sbertestmovie.dto;
+
+import com.example.sbertestmovie.entity.Movie;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Объект, представляющий изменение фильма: его состояние до и после обновления.
+ * <p>
+ * Используется для поддержания производных структур (статистики, индексов),
+ * которым нужны прежние значения полей фильма.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieChangeDto {
+
+    /**
+     * Фильм до обновления.
+     */
+    private Movie previous;
+
+    /**
+     * Фильм после обновления.
+     */
+    private Movie updated;
+}
@@ -0,0 +1,24 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Объект, представляющий пакет изменений фильмов, полученный от другого экземпляра приложения.
+ */
+@Data
+@AllArgsConstructor
+public class MovieChangesDto {
+
+    /**
+     * Версии записей изменённых фильмов по идентификаторам.
+     */
+    private Map<Long, Long> versions;
+
+    /**
+     * Изменения количества фильмов по группам (отрицательные — для удалённых фильмов).
+     */
+    private Map<MovieGroupDto, Long> counts;
+}
@@ -0,0 +1,147 @@
+package com.example.sbertestmovie.dto;
+
+import com.example.sbertestmovie.exception.WrongParametersException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Курсор для постраничного обхода фильмов методом keyset (seek) пагинации.
+ * <p>
+ * Курсор хранит ключ сортировки и идентификатор последнего фильма на странице.
+ * Следующая страница выбирается условием {@code (ключ, id) > (значение, id)},
+ * поэтому стоимость запроса не зависит от глубины обхода.
+ * Клиенту курсор передаётся в виде непрозрачной строки (base64url).
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieCursor {
+
+    /**
+     * Поля, по которым поддерживается keyset-сортировка.
+     */
+    public enum SortField {
+        ID,
+        TITLE,
+        RELEASE_DATE;
+
+        /**
+         * Определение поля сортировки по имени параметра запроса.
+         *
+         * @param name имя поля (id, title, releaseDate)
+         * @return поле сортировки
+         * @throws WrongParametersException если сортировка по полю не поддерживается
+         */
+        public static SortField fromParameter(String name) {
+            switch (name) {
+                case "id":
+                    return ID;
+                case "title":
+                    return TITLE;
+                case "releaseDate":
+                    return RELEASE_DATE;
+                default:
+                    throw new WrongParametersException("Сортировка по полю " + name + " не поддерживается");
+            }
+        }
+    }
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Поле сортировки.
+     */
+    private SortField sortField;
+
+    /**
+     * Идентификатор последнего фильма на предыдущей странице.
+     * Для первой страницы равен {@code null}.
+     */
+    private Long lastId;
+
+    /**
+     * Значение ключа сортировки последнего фильма на предыдущей странице.
+     * Для сортировки по id и для первой страницы равно {@code null}.
+     */
+    private String lastValue;
+
+    /**
+     * Создание курсора, указывающего на начало выборки.
+     *
+     * @param sortField поле сортировки
+     * @return курсор первой страницы
+     */
+    public static MovieCursor first(SortField sortField) {
+        return new MovieCursor(sortField, null, null);
+    }
+
+    /**
+     * Создание курсора, указывающего на позицию после фильма с переданными id и ключом сортировки.
+     *
+     * @param sortField поле сортировки
+     * @param lastId идентификатор последнего фильма текущей страницы
+     * @param lastValue значение ключа сортировки последнего фильма (название или дата релиза в формате ISO);
+     *                  при сортировке по id не используется
+     * @return курсор следующей страницы
+     */
+    public static MovieCursor after(SortField sortField, Long lastId, String lastValue) {
+        return new MovieCursor(sortField, lastId, sortField == SortField.ID ? null : lastValue);
+    }
+
+    /**
+     * Проверка, указывает ли курсор на начало выборки.
+     *
+     * @return {@code true}, если курсор относится к первой странице
+     */
+    public boolean isFirst() {
+        return Objects.isNull(lastId);
+    }
+
+    /**
+     * Значение ключа сортировки в виде даты. Используется при сортировке по дате релиза.
+     *
+     * @return дата релиза последнего фильма
+     */
+    public LocalDate getLastReleaseDate() {
+        return LocalDate.parse(lastValue);
+    }
+
+    /**
+     * Кодирование курсора в непрозрачную строку.
+     *
+     * @return строковое представление курсора
+     */
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + lastId + SEPARATOR + Objects.toString(lastValue, "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирование курсора из строки, полученной от клиента.
+     *
+     * @param token строковое представление курсора
+     * @return курсор
+     * @throws WrongParametersException если строка не является корректным курсором
+     */
+    public static MovieCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 3);
+            SortField sortField = SortField.valueOf(parts[0]);
+            Long lastId = Long.valueOf(parts[1]);
+            String lastValue = sortField == SortField.ID ? null : parts[2];
+            MovieCursor cursor = new MovieCursor(sortField, lastId, lastValue);
+            if (sortField == SortField.RELEASE_DATE) {
+                cursor.getLastReleaseDate();
+            }
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new WrongParametersException("Некорректный курсор страницы");
+        }
+    }
+}
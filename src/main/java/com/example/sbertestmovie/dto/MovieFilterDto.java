@@ -0,0 +1,59 @@
+package com.example.sbertestmovie.dto;
+
+import com.example.sbertestmovie.entity.Genre;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Объект передачи данных (DTO), представляющий условия фильтрации списка фильмов.
+ * <p>
+ * Заполняется из параметров запроса. Незаданные условия не участвуют в фильтрации.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieFilterDto {
+
+    /**
+     * Жанр фильма (точное совпадение).
+     */
+    private Genre genre;
+
+    /**
+     * Начало имени режиссёра (поиск по префиксу).
+     */
+    private String director;
+
+    /**
+     * Начало названия фильма (поиск по префиксу).
+     */
+    private String title;
+
+    /**
+     * Нижняя граница даты релиза (включительно).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate releasedFrom;
+
+    /**
+     * Верхняя граница даты релиза (включительно).
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate releasedTo;
+
+    /**
+     * Проверка, задано ли хотя бы одно условие фильтрации.
+     *
+     * @return {@code true}, если ни одно условие не задано
+     */
+    public boolean isEmpty() {
+        return Objects.isNull(genre) && Objects.isNull(director) && Objects.isNull(title) &&
+                Objects.isNull(releasedFrom) && Objects.isNull(releasedTo);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.sbertestmovie.dto;
+
+import com.example.sbertestmovie.entity.Genre;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Объект, представляющий группу фильмов с одинаковыми жанром, годом релиза и режиссёром.
+ * <p>
+ * Используется как ключ изменений статистики каталога, передаваемых между экземплярами приложения.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieGroupDto {
+
+    /**
+     * Жанр.
+     */
+    private Genre genre;
+
+    /**
+     * Год релиза.
+     */
+    private int year;
+
+    /**
+     * Режиссёр.
+     */
+    private String director;
+}
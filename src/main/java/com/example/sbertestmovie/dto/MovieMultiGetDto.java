@@ -0,0 +1,29 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Объект передачи данных (DTO), представляющий результат получения фильмов по списку идентификаторов.
+ * <p>
+ * Найденные фильмы возвращаются по идентификаторам в порядке запроса, а отсутствующие
+ * идентификаторы перечисляются отдельно и не приводят к ошибке всего запроса.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieMultiGetDto {
+
+    /**
+     * Найденные фильмы по идентификаторам в порядке запроса.
+     */
+    private Map<Long, MovieDto> movies;
+
+    /**
+     * Идентификаторы, по которым фильмы не найдены, в порядке запроса.
+     */
+    private List<Long> missing;
+}
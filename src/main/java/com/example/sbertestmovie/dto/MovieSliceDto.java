@@ -0,0 +1,42 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Объект передачи данных (DTO), представляющий срез (slice) списка фильмов.
+ * <p>
+ * Используется в режиме keyset-пагинации. В отличие от страницы не содержит
+ * общего количества фильмов, поэтому не требует запроса {@code count(*)}.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class MovieSliceDto {
+
+    /**
+     * Фильмы текущего среза.
+     */
+    private List<MovieDto> content;
+
+    /**
+     * Запрошенный размер среза.
+     */
+    private int size;
+
+    /**
+     * Признак наличия следующего среза.
+     */
+    private boolean hasNext;
+
+    /**
+     * Курсор для получения следующего среза.
+     * <p>
+     * Передаётся в параметре {@code after} следующего запроса.
+     * Равен {@code null}, если следующего среза нет.
+     * </p>
+     */
+    private String next;
+}
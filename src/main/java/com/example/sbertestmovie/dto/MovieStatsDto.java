@@ -0,0 +1,38 @@
+package com.example.sbertestmovie.dto;
+
+import com.example.sbertestmovie.entity.Genre;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Объект передачи данных (DTO), представляющий сводную статистику каталога фильмов.
+ */
+@Data
+@AllArgsConstructor
+public class MovieStatsDto {
+
+    /**
+     * Общее количество фильмов.
+     */
+    private long total;
+
+    /**
+     * Количество фильмов по жанрам.
+     */
+    private Map<Genre, Long> byGenre;
+
+    /**
+     * Количество фильмов по годам релиза в порядке возрастания года.
+     */
+    private Map<Integer, Long> byYear;
+
+    /**
+     * Количество фильмов по режиссёрам в порядке убывания количества.
+     * <p>
+     * Содержит только режиссёров с наибольшим количеством фильмов.
+     * </p>
+     */
+    private Map<String, Long> byDirector;
+}
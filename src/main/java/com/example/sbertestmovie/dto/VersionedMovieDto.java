@@ -0,0 +1,34 @@
+package com.example.sbertestmovie.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Объект передачи данных (DTO), представляющий фильм вместе с версией его записи.
+ * <p>
+ * Хранится в кэше фильмов и используется для условных GET-запросов:
+ * по версии и времени изменения строятся заголовки {@code ETag} и {@code Last-Modified},
+ * поэтому ответ {@code 304 Not Modified} формируется без преобразования и сериализации фильма.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+public class VersionedMovieDto {
+
+    /**
+     * DTO-объект фильма.
+     */
+    private MovieDto movie;
+
+    /**
+     * Версия записи фильма.
+     */
+    private Long version;
+
+    /**
+     * Время последнего изменения фильма.
+     */
+    private Instant updatedAt;
+}
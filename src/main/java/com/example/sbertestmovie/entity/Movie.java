@@ -3,7 +3,12 @@ package com.example.sbertestmovie.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 /**
@@ -11,15 +16,27 @@ import java.time.LocalDate;
  * <p>
  * Этот класс отображает объект фильма в базе данных и содержит все
  * необходимые поля, такие как идентификатор, заголовок, режиссёр,
- * дата релиза и жанр.
+ * дата релиза и жанр, а также версию и время последнего изменения записи.
+ * </p>
+ * <p>
+ * Сущность хранится в кэше второго уровня Hibernate (регион {@code movies}). Изменения, выполняемые
+ * через {@link com.example.sbertestmovie.repository.MovieJdbcRepository} в обход Hibernate,
+ * удаляют фильм из этого кэша явно.
  * </p>
  */
 @Entity
 @Data
 @NoArgsConstructor
 @Table(name = "movies")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Movie.CACHE_REGION)
 public class Movie {
 
+    /**
+     * Имя региона кэша второго уровня для фильмов.
+     */
+    public static final String CACHE_REGION = "movies";
+
     /**
      * Уникальный идентификатор фильма.
      * <p>
@@ -77,6 +94,29 @@ public class Movie {
     @Column(nullable = false)
     private Genre genre;
 
+    /**
+     * Версия записи фильма.
+     * <p>
+     * Используется для оптимистической блокировки и увеличивается при каждом изменении фильма.
+     * Вместе с {@link #updatedAt} образует ETag фильма.
+     * </p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Время последнего изменения фильма.
+     * <p>
+     * Заполняется при создании и обновлении фильма и передаётся клиентам в заголовке {@code Last-Modified}.
+     * </p>
+     */
+    @UpdateTimestamp
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(nullable = false)
+    private Instant updatedAt;
+
     /**
      * Конструктор для создания нового экземпляра фильма с указанными
      * заголовком, режиссёром, датой релиза и жанром.
@@ -1,12 +1,17 @@
 package com.example.sbertestmovie.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
 /**
  * Исключение, которое выбрасывается при наличии некорректных параметров у передаваемого объекта.
  * <p>
  * Это исключение используется для сигнализации о том, что один или несколько параметров
  * переданных в методе, не соответствуют ожидаемым требованиям.
+ * Клиенту в этом случае отвечают статусом {@code 400 Bad Request}.
  * </p>
  */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
 public class WrongParametersException extends RuntimeException {
     /**
      * Конструктор, создающий исключение с указанным сообщением.
@@ -0,0 +1,129 @@
+package com.example.sbertestmovie.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивное ограничение количества одновременно выполняемых запросов по градиенту задержки.
+ * <p>
+ * Ограничение подстраивается под наблюдаемую задержку запросов, как алгоритм Gradient2 (вариант TCP Vegas).
+ * Долгая задержка — экспоненциальное скользящее среднее по последним ~{@code LONG_WINDOW} запросам —
+ * считается задержкой без очереди, а задержка очередного запроса сравнивается с ней:
+ * градиент {@code TOLERANCE · долгая / текущая}, ограниченный отрезком [0.5, 1].
+ * Новое ограничение равно текущему, умноженному на градиент, плюс допустимая очередь
+ * (квадратный корень из ограничения), и сглаживается с коэффициентом {@code SMOOTHING}.
+ * </p>
+ * <p>
+ * Пока задержка не растёт, ограничение увеличивается на размер очереди, а при росте задержки
+ * (например, когда замедлилась база данных) уменьшается, не опускаясь ниже минимального.
+ * Если занята меньше половины ограничения, оно не увеличивается: нагрузка не подтверждает,
+ * что больший параллелизм допустим. Если задержка надолго упала, долгая задержка постепенно
+ * уменьшается к новому уровню.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+    private double longRtt;
+    private int samples;
+
+    /**
+     * Конструктор для инициализации AdaptiveConcurrencyLimit.
+     *
+     * @param initialLimit начальное ограничение
+     * @param minLimit минимальное ограничение
+     * @param maxLimit максимальное ограничение
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Некорректные параметры ограничения параллелизма");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Попытка начать выполнение запроса.
+     *
+     * @return количество выполняемых запросов вместе с этим или {@code -1}, если ограничение достигнуто
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Завершение запроса, начатого успешным {@link #tryAcquire()}.
+     *
+     * @param rttNanos длительность запроса в наносекундах
+     * @param inFlightAtStart количество выполнявшихся запросов при его начале
+     * @param sample учитывать ли длительность запроса; длительность неудачных запросов не учитывается
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample && rttNanos > 0) {
+            onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    /**
+     * Получение текущего ограничения.
+     *
+     * @return максимальное количество одновременно выполняемых запросов
+     */
+    public int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    /**
+     * Получение количества выполняемых запросов.
+     *
+     * @return количество запросов, начатых и ещё не завершённых
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Пересчёт ограничения по длительности очередного запроса. Вспомогательный метод.
+     *
+     * @param rtt длительность запроса в наносекундах
+     * @param inFlightAtStart количество выполнявшихся запросов при его начале
+     */
+    private synchronized void onSample(long rtt, int inFlightAtStart) {
+        samples++;
+        if (samples <= WARMUP_SAMPLES) {
+            longRtt += (rtt - longRtt) / samples;
+        } else {
+            longRtt += (rtt - longRtt) * 2 / (LONG_WINDOW + 1);
+        }
+        if (longRtt / rtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        double limit = estimatedLimit;
+        if (samples <= WARMUP_SAMPLES || inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
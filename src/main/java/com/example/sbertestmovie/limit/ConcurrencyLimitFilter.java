@@ -0,0 +1,149 @@
+package com.example.sbertestmovie.limit;
+
+import com.example.sbertestmovie.util.RequestUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Фильтр, ограничивающий количество одновременно выполняемых запросов к API фильмов.
+ * <p>
+ * Чтения ({@code GET}, {@code HEAD} и {@code POST} к маршрутам чтения, см. {@link RequestUtils#isRead})
+ * и изменения ограничиваются отдельными {@link AdaptiveConcurrencyLimit},
+ * чтобы медленные записи не вытесняли чтения и наоборот. Ограничения подстраиваются по длительности
+ * запросов; ответы {@code 5xx}, исключения и большие страницы {@code GET /movies} в расчёт не входят. Запрос сверх ограничения сразу
+ * отклоняется ответом {@code 503 Service Unavailable} с заголовком {@code Retry-After}, не занимая
+ * поток и соединение с базой данных, поэтому при перегрузке задержка принятых запросов остаётся ограниченной.
+ * </p>
+ * <p>
+ * Метрики: {@code movies.limit} — текущее ограничение, {@code movies.limit.inflight} — выполняемые запросы,
+ * {@code movies.limit.rejected} — отклонённые запросы; все с тегом {@code type} ({@code read} или {@code write}).
+ * </p>
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> STREAMING_PATHS = Set.of("/movies/export", "/movies/stream");
+    private static final String PAGE_PATH = "/movies";
+    private static final String PAGE_SIZE_PARAMETER = "size";
+
+    private final AdaptiveConcurrencyLimit readLimit;
+    private final AdaptiveConcurrencyLimit writeLimit;
+    private final String retryAfterSeconds;
+    private final int streamMinSize;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+
+    /**
+     * Конструктор для инициализации ConcurrencyLimitFilter.
+     *
+     * @param readLimit ограничение для чтений
+     * @param writeLimit ограничение для изменений
+     * @param retryAfter рекомендуемая задержка перед повтором отклонённого запроса
+     * @param streamMinSize минимальный размер страницы {@code GET /movies}, которая записывается в ответ по мере чтения
+     * @param registry реестр метрик
+     */
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit readLimit, AdaptiveConcurrencyLimit writeLimit,
+                                  Duration retryAfter, int streamMinSize, MeterRegistry registry) {
+        this.readLimit = readLimit;
+        this.writeLimit = writeLimit;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+        this.streamMinSize = streamMinSize;
+        this.readRejections = bindMetrics(registry, "read", readLimit);
+        this.writeRejections = bindMetrics(registry, "write", writeLimit);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean read = RequestUtils.isRead(request);
+        AdaptiveConcurrencyLimit limit = read ? readLimit : writeLimit;
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            log.debug("ОШИБКА: Превышено ограничение одновременных запросов: {} {}", request.getMethod(),
+                    request.getRequestURI());
+            (read ? readRejections : writeRejections).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            chain.doFilter(request, response);
+            success = response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limit.release(System.nanoTime() - start, inFlight, success && !isLargePage(request));
+        }
+    }
+
+    /**
+     * Потоковые выдачи ({@code /movies/export} и {@code /movies/stream}) длятся, пока клиент читает ответ,
+     * и не ограничиваются, чтобы не искажать задержку остальных запросов.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return STREAMING_PATHS.contains(RequestUtils.getPath(request));
+    }
+
+    /**
+     * Проверка, что запрос получает страницу фильмов от {@code movies.page.stream-min-size} фильмов. Вспомогательный метод.
+     * <p>
+     * Такая страница записывается в ответ по мере чтения из базы данных, и её длительность зависит от размера
+     * страницы и скорости клиента, а не от загрузки приложения, поэтому она занимает место в ограничении,
+     * но не используется для его подстройки. Большие страницы, которые строятся целиком (с фильтрацией
+     * или в формате CBOR), тоже не используются: их длительность так же определяется размером.
+     * </p>
+     *
+     * @param request текущий запрос
+     * @return {@code true}, если запрос получает большую страницу фильмов
+     */
+    private boolean isLargePage(HttpServletRequest request) {
+        String size = request.getParameter(PAGE_SIZE_PARAMETER);
+        if (size == null || !HttpMethod.GET.matches(request.getMethod()) || !PAGE_PATH.equals(RequestUtils.getPath(request))) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(size.trim()) >= streamMinSize;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Регистрация метрик одного ограничения. Вспомогательный метод.
+     *
+     * @param registry реестр метрик
+     * @param type тип запросов ({@code read} или {@code write})
+     * @param limit ограничение
+     * @return счётчик отклонённых запросов
+     */
+    private static Counter bindMetrics(MeterRegistry registry, String type, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("movies.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Текущее ограничение одновременных запросов")
+                .tag("type", type)
+                .register(registry);
+        Gauge.builder("movies.limit.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Количество выполняемых запросов")
+                .tag("type", type)
+                .register(registry);
+        return Counter.builder("movies.limit.rejected")
+                .description("Количество запросов, отклонённых из-за ограничения")
+                .tag("type", type)
+                .register(registry);
+    }
+}
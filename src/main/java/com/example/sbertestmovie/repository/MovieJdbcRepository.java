@@ -0,0 +1,618 @@
+package com.example.sbertestmovie.repository;
+
+import com.example.sbertestmovie.cache.MovieSecondLevelCache;
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.MovieChangeDto;
+import com.example.sbertestmovie.dto.MovieCursor;
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Репозиторий для операций над таблицей фильмов через JDBC.
+ * <p>
+ * Используется там, где JPA не позволяет выполнить операцию эффективно,
+ * например для пакетной вставки: идентификатор {@link Movie} генерируется
+ * базой данных (IDENTITY), поэтому Hibernate не группирует такие вставки в пакеты,
+ * или для потокового чтения всей таблицы без накопления сущностей в контексте персистентности.
+ * Изменяющие методы сбрасывают кэш второго уровня Hibernate через {@link MovieSecondLevelCache}.
+ * Длительность запросов записывается в таймер {@code movies.jdbc}.
+ * </p>
+ */
+@Repository
+@Profile("!reactive")
+@Timed(value = "movies.jdbc", histogram = true)
+public class MovieJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO movies (title, director, release_date, genre) VALUES (?, ?, ?, ?)";
+
+    private static final String COLUMNS = "id, title, director, release_date, genre, version, updated_at";
+
+    private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM movies ORDER BY id";
+
+    private static final String SELECT_PAGE_SQL = "SELECT " + COLUMNS + " FROM movies ORDER BY %s LIMIT ? OFFSET ?";
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "director", "director",
+            "releaseDate", "release_date",
+            "genre", "genre",
+            "version", "version",
+            "updatedAt", "updated_at"
+    );
+
+    private static final String DTO_COLUMNS = "id, title, director, release_date, genre";
+
+    private static final String SELECT_FIRST_SLICE_SQL = "SELECT " + DTO_COLUMNS + " FROM movies ORDER BY %s LIMIT ?";
+
+    private static final String SELECT_NEXT_SLICE_BY_ID_SQL =
+            "SELECT " + DTO_COLUMNS + " FROM movies WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_NEXT_SLICE_BY_TITLE_SQL =
+            "SELECT " + DTO_COLUMNS + " FROM movies WHERE (title, id) > (?, ?) ORDER BY title, id LIMIT ?";
+
+    // Условие release_date >= ? следует из сравнения строк, но по сравнению строк PostgreSQL не отсекает секции
+    private static final String SELECT_NEXT_SLICE_BY_RELEASE_DATE_SQL = "SELECT " + DTO_COLUMNS + " FROM movies "
+            + "WHERE release_date >= ? AND (release_date, id) > (?, ?) ORDER BY release_date, id LIMIT ?";
+
+    private static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM movies WHERE id = ?";
+
+    private static final String SELECT_ALL_BY_ID_SQL = "SELECT " + COLUMNS + " FROM movies WHERE id = ANY (?)";
+
+    private static final String DELETE_BY_ID_SQL = "DELETE FROM movies WHERE id = ? RETURNING " + COLUMNS;
+
+    private static final String DELETE_ALL_BY_ID_SQL = "DELETE FROM movies WHERE id = ANY (?) RETURNING " + COLUMNS;
+
+    private static final String GROUP_COUNT_SQL = "SELECT genre, EXTRACT(YEAR FROM release_date) AS release_year, "
+            + "director, count(*) AS movie_count FROM movies GROUP BY genre, EXTRACT(YEAR FROM release_date), director";
+
+    // Для секционированной таблицы оценка складывается из оценок секций; секции без статистики не учитываются
+    private static final String ESTIMATE_COUNT_SQL = "SELECT CASE WHEN max(c.reltuples) < 0 THEN -1 "
+            + "ELSE sum(greatest(c.reltuples, 0)) END::bigint FROM pg_class c WHERE c.relkind = 'r' "
+            + "AND (c.oid = 'movies'::regclass OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = 'movies'::regclass))";
+
+    private static final String COUNT_SQL = "SELECT count(*) FROM movies";
+
+    private static final String DEFAULT_PARTITION = "movies_default";
+
+    private static final String SELECT_DEFAULT_PARTITION_YEARS_SQL =
+            "SELECT DISTINCT EXTRACT(YEAR FROM release_date)::int FROM " + DEFAULT_PARTITION;
+
+    private static final String PARTITION_EXISTS_SQL = "SELECT count(*) > 0 FROM pg_class c "
+            + "JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relname = ? AND n.nspname = current_schema()";
+
+    private static final String MOVE_FROM_DEFAULT_PARTITION_SQL = "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+            + " WHERE release_date >= ? AND release_date < ? RETURNING *) INSERT INTO %s SELECT * FROM moved";
+
+    private static final String SELECT_CATALOG_VERSION_SQL =
+            "SELECT sum(version) AS version, max(updated_at) AS updated_at FROM movies_catalog";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MovieSecondLevelCache secondLevelCache;
+    private final int batchSize;
+    private final int fetchSize;
+
+    /**
+     * Конструктор для инициализации MovieJdbcRepository.
+     *
+     * @param jdbcTemplate шаблон для выполнения JDBC-запросов
+     * @param secondLevelCache кэш второго уровня Hibernate, сбрасываемый после изменений
+     * @param batchSize максимальное количество строк в одном JDBC-пакете
+     * @param fetchSize количество строк, получаемых курсором за одно обращение к базе данных
+     */
+    @Autowired
+    public MovieJdbcRepository(JdbcTemplate jdbcTemplate,
+                               MovieSecondLevelCache secondLevelCache,
+                               @Value("${movies.batch.size:1000}") int batchSize,
+                               @Value("${movies.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = secondLevelCache;
+        this.batchSize = batchSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Получение максимального количества строк в одном JDBC-пакете.
+     *
+     * @return размер пакета
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Вставка фильмов одним JDBC-пакетом в отдельной транзакции.
+     * <p>
+     * Сгенерированные базой данных идентификаторы записываются в переданные сущности.
+     * </p>
+     *
+     * @param movies фильмы для вставки
+     * @return те же сущности фильмов с заполненными идентификаторами
+     */
+    @Transactional
+    public List<Movie> insertAll(List<Movie> movies) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Movie movie = movies.get(i);
+                        ps.setString(1, movie.getTitle());
+                        ps.setString(2, movie.getDirector());
+                        ps.setDate(3, Date.valueOf(movie.getReleaseDate()));
+                        ps.setString(4, movie.getGenre().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return movies.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < movies.size(); i++) {
+            movies.get(i).setId(((Number) keys.get(i).get("id")).longValue());
+        }
+        secondLevelCache.evictAll(List.of());
+        return movies;
+    }
+
+    /**
+     * Обновление заданных полей фильма одним запросом.
+     * <p>
+     * В {@code UPDATE} попадают только поля, отличные от {@code null}; версия записи
+     * и время последнего изменения обновляются в том же запросе. Строка блокируется
+     * и читается в общем табличном выражении, а её состояние до и после обновления
+     * возвращается через {@code RETURNING}, поэтому изменение выполняется за одно обращение
+     * к базе данных. Если изменяемых полей нет, фильм только читается.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param changes фильм с новыми значениями полей
+     * @return фильм до и после обновления или пустой результат, если фильм не найден
+     */
+    public Optional<MovieChangeDto> update(Long id, Movie changes) {
+        StringBuilder set = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        args.add(id);
+        if (changes.getTitle() != null) {
+            set.append("title = ?, ");
+            args.add(changes.getTitle());
+        }
+        if (changes.getDirector() != null) {
+            set.append("director = ?, ");
+            args.add(changes.getDirector());
+        }
+        if (changes.getReleaseDate() != null) {
+            set.append("release_date = ?, ");
+            args.add(Date.valueOf(changes.getReleaseDate()));
+        }
+        if (changes.getGenre() != null) {
+            set.append("genre = ?, ");
+            args.add(changes.getGenre().name());
+        }
+
+        if (set.isEmpty()) {
+            return jdbcTemplate.query(SELECT_BY_ID_SQL, (rs, rowNum) -> mapRow(rs), id).stream()
+                    .findFirst()
+                    .map(movie -> new MovieChangeDto(movie, movie));
+        }
+        String sql = "WITH old AS (SELECT " + COLUMNS + " FROM movies WHERE id = ? FOR UPDATE) "
+                + "UPDATE movies m SET " + set + "version = m.version + 1, updated_at = now() "
+                + "FROM old WHERE m.id = old.id RETURNING "
+                + "m.id, m.title, m.director, m.release_date, m.genre, m.version, m.updated_at, "
+                + "old.title AS old_title, old.director AS old_director, old.release_date AS old_release_date, "
+                + "old.genre AS old_genre, old.version AS old_version, old.updated_at AS old_updated_at";
+        Optional<MovieChangeDto> change = jdbcTemplate.query(sql,
+                (rs, rowNum) -> new MovieChangeDto(mapRow(rs, "old_"), mapRow(rs)), args.toArray()).stream().findFirst();
+        change.ifPresent(c -> secondLevelCache.evict(id));
+        return change;
+    }
+
+    /**
+     * Удаление фильма по идентификатору одним запросом.
+     *
+     * @param id идентификатор фильма
+     * @return удалённый фильм или пустой результат, если фильм не найден
+     */
+    public Optional<Movie> deleteById(Long id) {
+        Optional<Movie> deleted = jdbcTemplate.query(DELETE_BY_ID_SQL, (rs, rowNum) -> mapRow(rs), id).stream().findFirst();
+        deleted.ifPresent(movie -> secondLevelCache.evict(id));
+        return deleted;
+    }
+
+    /**
+     * Получение фильма по идентификатору.
+     * <p>
+     * Фильм читается запросом к таблице, минуя кэш второго уровня Hibernate.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @return найденный фильм
+     */
+    public Optional<Movie> findById(Long id) {
+        return jdbcTemplate.query(SELECT_BY_ID_SQL, (rs, rowNum) -> mapRow(rs), id).stream().findFirst();
+    }
+
+    /**
+     * Получение фильмов по списку идентификаторов одним запросом.
+     * <p>
+     * Отсутствующие идентификаторы пропускаются; порядок фильмов не определён.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов
+     * @return найденные фильмы
+     */
+    public List<Movie> findAllById(Collection<Long> ids) {
+        return jdbcTemplate.query(SELECT_ALL_BY_ID_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> mapRow(rs));
+    }
+
+    /**
+     * Удаление фильмов по списку идентификаторов одним запросом.
+     * <p>
+     * Идентификаторы передаются одним параметром-массивом, поэтому текст запроса
+     * не зависит от их количества.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов
+     * @return удалённые фильмы
+     */
+    public List<Movie> deleteAllById(Collection<Long> ids) {
+        List<Movie> deleted = jdbcTemplate.query(DELETE_ALL_BY_ID_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                (rs, rowNum) -> mapRow(rs));
+        if (!deleted.isEmpty()) {
+            secondLevelCache.evictAll(deleted.stream().map(Movie::getId).toList());
+        }
+        return deleted;
+    }
+
+    /**
+     * Обход количества фильмов в группах по жанру, году релиза и режиссёру.
+     *
+     * @param handler обработчик, вызываемый для каждой группы
+     */
+    public void forEachGroupCount(GroupCountHandler handler) {
+        jdbcTemplate.query(GROUP_COUNT_SQL, (RowCallbackHandler) rs -> handler.accept(
+                Genre.valueOf(rs.getString("genre")),
+                rs.getInt("release_year"),
+                rs.getString("director"),
+                rs.getLong("movie_count")
+        ));
+    }
+
+    /**
+     * Потоковый обход всех фильмов в порядке возрастания id.
+     * <p>
+     * Строки читаются серверным курсором порциями по {@code fetchSize}, поэтому
+     * расход памяти не зависит от размера таблицы. Курсор PostgreSQL работает только
+     * внутри транзакции, поэтому метод выполняется в транзакции только для чтения.
+     * </p>
+     *
+     * @param consumer обработчик, вызываемый для каждого фильма
+     */
+    @Transactional(readOnly = true)
+    public void forEach(Consumer<Movie> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_ALL_SQL);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    /**
+     * Потоковый обход фильмов одной страницы.
+     * <p>
+     * Строки страницы читаются серверным курсором порциями по {@code fetchSize} и передаются обработчику
+     * по мере чтения, без накопления страницы в памяти. К порядку сортировки страницы всегда добавляется
+     * id, чтобы соседние страницы не пересекались.
+     * </p>
+     *
+     * @param pageable параметры страницы; свойства сортировки должны проходить проверку {@link #isSortable(Sort)}
+     * @param consumer обработчик, вызываемый для каждого фильма страницы
+     */
+    @Transactional(readOnly = true)
+    public void forEachInPage(Pageable pageable, Consumer<Movie> consumer) {
+        String sql = String.format(SELECT_PAGE_SQL, orderBy(pageable.getSort()));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql);
+            ps.setFetchSize(Math.min(fetchSize, pageable.getPageSize()));
+            ps.setInt(1, pageable.getPageSize());
+            ps.setLong(2, pageable.getOffset());
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    /**
+     * Получение среза фильмов с keyset-пагинацией сразу в виде DTO-объектов.
+     * <p>
+     * Срез выбирается условием {@code (ключ, id) > (значение, id)} по позиции курсора, поэтому стоимость запроса
+     * не зависит от глубины обхода. Выбирается на одну строку больше размера среза, чтобы определить наличие
+     * следующего среза без подсчёта общего количества. Курсор следующего среза строится по ключу сортировки
+     * и id последнего фильма среза, без создания сущностей.
+     * </p>
+     *
+     * @param cursor курсор предыдущего среза
+     * @param size размер среза
+     * @return срез DTO-объектов фильмов с курсором следующего среза
+     */
+    public MovieSliceDto findSliceAfter(MovieCursor cursor, int size) {
+        MovieCursor.SortField sortField = cursor.getSortField();
+        String sql;
+        Object[] args;
+        if (cursor.isFirst()) {
+            sql = String.format(SELECT_FIRST_SLICE_SQL, sortField == MovieCursor.SortField.ID
+                    ? "id" : keysetColumn(sortField) + ", id");
+            args = new Object[]{size + 1};
+        } else {
+            switch (sortField) {
+                case TITLE:
+                    sql = SELECT_NEXT_SLICE_BY_TITLE_SQL;
+                    args = new Object[]{cursor.getLastValue(), cursor.getLastId(), size + 1};
+                    break;
+                case RELEASE_DATE:
+                    Date lastReleaseDate = Date.valueOf(cursor.getLastReleaseDate());
+                    sql = SELECT_NEXT_SLICE_BY_RELEASE_DATE_SQL;
+                    args = new Object[]{lastReleaseDate, lastReleaseDate, cursor.getLastId(), size + 1};
+                    break;
+                default:
+                    sql = SELECT_NEXT_SLICE_BY_ID_SQL;
+                    args = new Object[]{cursor.getLastId(), size + 1};
+            }
+        }
+
+        List<MovieDto> content = new ArrayList<>(size);
+        MovieCursor[] last = new MovieCursor[1];
+        boolean[] hasNext = new boolean[1];
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            if (content.size() == size) {
+                hasNext[0] = true;
+                return;
+            }
+            content.add(mapDto(rs));
+            last[0] = MovieCursor.after(sortField, rs.getLong("id"),
+                    sortField == MovieCursor.SortField.ID ? null : rs.getString(keysetColumn(sortField)));
+        }, args);
+        return new MovieSliceDto(content, size, hasNext[0], hasNext[0] ? last[0].encode() : null);
+    }
+
+    /**
+     * Проверка, что все свойства сортировки поддерживаются {@link #forEachInPage(Pageable, Consumer)}.
+     *
+     * @param sort порядок сортировки
+     * @return {@code true}, если каждое свойство соответствует столбцу таблицы фильмов
+     */
+    public static boolean isSortable(Sort sort) {
+        return sort.stream().allMatch(order -> SORT_COLUMNS.containsKey(order.getProperty()));
+    }
+
+    /**
+     * Получение оценки количества фильмов из статистики планировщика PostgreSQL.
+     * <p>
+     * Значение {@code pg_class.reltuples} обновляется {@code VACUUM}/{@code ANALYZE} и читается
+     * без обхода таблицы. Для таблицы, по которой статистика ещё не собиралась, возвращается
+     * отрицательное значение.
+     * </p>
+     *
+     * @return оценка количества фильмов или отрицательное значение, если оценки нет
+     */
+    public long estimateCount() {
+        Long estimate = jdbcTemplate.queryForObject(ESTIMATE_COUNT_SQL, Long.class);
+        return estimate == null ? -1 : estimate;
+    }
+
+    /**
+     * Получение точного количества фильмов.
+     *
+     * @return количество фильмов
+     */
+    public long count() {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Получение годов релиза фильмов, попавших в секцию по умолчанию секционированной таблицы фильмов.
+     *
+     * @return годы, для которых нет отдельной секции, но есть фильмы
+     */
+    public List<Integer> findDefaultPartitionYears() {
+        return jdbcTemplate.queryForList(SELECT_DEFAULT_PARTITION_YEARS_SQL, Integer.class);
+    }
+
+    /**
+     * Создание секции фильмов одного года релиза, если её ещё нет.
+     * <p>
+     * Если в секции по умолчанию уже есть фильмы этого года, секция создаётся отдельной таблицей,
+     * фильмы переносятся в неё из секции по умолчанию, и только затем она присоединяется к таблице фильмов:
+     * иначе PostgreSQL не позволит создать секцию. Перенос не меняет содержимое каталога и выполняется
+     * в одной транзакции, поэтому для читающих запросов фильмы не пропадают.
+     * </p>
+     *
+     * @param year год релиза
+     * @return {@code true}, если секция создана
+     */
+    @Transactional
+    public boolean createYearPartition(int year) {
+        String partition = "movies_y" + year;
+        Boolean exists = jdbcTemplate.queryForObject(PARTITION_EXISTS_SQL, Boolean.class, partition);
+        if (Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        String bounds = "FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE movies INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update(String.format(MOVE_FROM_DEFAULT_PARTITION_SQL, partition), Date.valueOf(from), Date.valueOf(to));
+        jdbcTemplate.execute("ALTER TABLE movies ATTACH PARTITION " + partition + " " + bounds);
+        return true;
+    }
+
+    /**
+     * Получение текущей версии каталога фильмов.
+     * <p>
+     * Версия хранится в отдельной небольшой таблице и увеличивается триггером при каждой изменяющей
+     * таблицу фильмов инструкции, поэтому проверка сводится к сумме нескольких строк. Каждое соединение
+     * увеличивает свою строку счётчика, и сумма растёт с каждой зафиксированной транзакцией.
+     * </p>
+     *
+     * @return версия и время последнего изменения каталога
+     */
+    public CatalogVersionDto findCatalogVersion() {
+        return jdbcTemplate.queryForObject(SELECT_CATALOG_VERSION_SQL, (rs, rowNum) -> new CatalogVersionDto(
+                rs.getLong("version"),
+                rs.getTimestamp("updated_at").toInstant()
+        ));
+    }
+
+    /**
+     * Построение выражения {@code ORDER BY} по порядку сортировки. Вспомогательный метод.
+     * <p>
+     * Имена столбцов берутся только из {@code SORT_COLUMNS}, поэтому пользовательский ввод не попадает в запрос.
+     * </p>
+     *
+     * @param sort порядок сортировки
+     * @return список столбцов сортировки, завершающийся id
+     */
+    private static String orderBy(Sort sort) {
+        StringBuilder orderBy = new StringBuilder();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Сортировка по полю " + order.getProperty() + " не поддерживается");
+            }
+            if (column.equals("id")) {
+                return orderBy.append("id ").append(order.getDirection().name()).toString();
+            }
+            orderBy.append(column).append(' ').append(order.getDirection().name()).append(", ");
+        }
+        return orderBy.append("id").toString();
+    }
+
+    /**
+     * Преобразование строки результата запроса в {@link MovieDto}. Вспомогательный метод.
+     *
+     * @param rs результат запроса, указывающий на текущую строку
+     * @return DTO-объект фильма
+     * @throws SQLException если не удалось прочитать значения столбцов
+     */
+    private static MovieDto mapDto(ResultSet rs) throws SQLException {
+        return new MovieDto(
+                rs.getString("title"),
+                rs.getString("director"),
+                rs.getDate("release_date").toLocalDate(),
+                Genre.valueOf(rs.getString("genre"))
+        );
+    }
+
+    /**
+     * Получение столбца ключа keyset-сортировки. Вспомогательный метод.
+     *
+     * @param sortField поле сортировки
+     * @return имя столбца
+     */
+    private static String keysetColumn(MovieCursor.SortField sortField) {
+        switch (sortField) {
+            case TITLE:
+                return "title";
+            case RELEASE_DATE:
+                return "release_date";
+            default:
+                return "id";
+        }
+    }
+
+    /**
+     * Преобразование строки результата запроса в сущность {@link Movie}. Вспомогательный метод.
+     *
+     * @param rs результат запроса, указывающий на текущую строку
+     * @return сущность фильма
+     * @throws SQLException если не удалось прочитать значения столбцов
+     */
+    private static Movie mapRow(ResultSet rs) throws SQLException {
+        // Имена столбцов без префикса — константы: строка выборки не создаёт новых строк для имён
+        Movie movie = new Movie(
+                rs.getString("title"),
+                rs.getString("director"),
+                rs.getDate("release_date").toLocalDate(),
+                Genre.valueOf(rs.getString("genre"))
+        );
+        movie.setId(rs.getLong("id"));
+        movie.setVersion(rs.getLong("version"));
+        movie.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+        return movie;
+    }
+
+    /**
+     * Преобразование столбцов с заданным префиксом в сущность {@link Movie}. Вспомогательный метод.
+     * <p>
+     * Идентификатор всегда читается из столбца {@code id} без префикса.
+     * </p>
+     *
+     * @param rs результат запроса, указывающий на текущую строку
+     * @param prefix префикс имён столбцов
+     * @return сущность фильма
+     * @throws SQLException если не удалось прочитать значения столбцов
+     */
+    private static Movie mapRow(ResultSet rs, String prefix) throws SQLException {
+        Movie movie = new Movie(
+                rs.getString(prefix + "title"),
+                rs.getString(prefix + "director"),
+                rs.getDate(prefix + "release_date").toLocalDate(),
+                Genre.valueOf(rs.getString(prefix + "genre"))
+        );
+        movie.setId(rs.getLong("id"));
+        movie.setVersion(rs.getLong(prefix + "version"));
+        movie.setUpdatedAt(rs.getTimestamp(prefix + "updated_at").toInstant());
+        return movie;
+    }
+
+    /**
+     * Обработчик количества фильмов в группе по жанру, году релиза и режиссёру.
+     */
+    @FunctionalInterface
+    public interface GroupCountHandler {
+
+        /**
+         * Обработка группы фильмов.
+         *
+         * @param genre жанр
+         * @param year год релиза
+         * @param director режиссёр
+         * @param count количество фильмов в группе
+         */
+        void accept(Genre genre, int year, String director, long count);
+    }
+}
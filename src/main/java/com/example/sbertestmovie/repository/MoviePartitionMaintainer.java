@@ -0,0 +1,97 @@
+package com.example.sbertestmovie.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Year;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Создание новых секций таблицы фильмов, секционированной по дате релиза (профиль {@code partitioned}).
+ * <p>
+ * Начиная с {@value #FIRST_YEARLY_PARTITION} года фильмы хранятся в секциях по годам. После запуска приложения
+ * и затем с интервалом {@code movies.partitions.check-interval} заранее создаются секции на текущий год
+ * и {@code movies.partitions.years-ahead} следующих лет, а также секции для годов, фильмы которых уже попали
+ * в секцию по умолчанию (например, с датами в далёком будущем или прошлом), — с переносом этих фильмов.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "movies.partitions.enabled", havingValue = "true")
+public class MoviePartitionMaintainer {
+
+    /**
+     * Первый год, с которого фильмы хранятся в секциях по годам; более ранние даты разбиты по десятилетиям в schema-partitioned.sql.
+     */
+    public static final int FIRST_YEARLY_PARTITION = 2020;
+
+    private final MovieJdbcRepository movieJdbcRepository;
+    private final int yearsAhead;
+    private final Clock clock;
+
+    /**
+     * Конструктор для инициализации MoviePartitionMaintainer.
+     *
+     * @param movieJdbcRepository репозиторий фильмов для создания секций
+     * @param yearsAhead количество лет после текущего, для которых секции создаются заранее
+     */
+    @Autowired
+    public MoviePartitionMaintainer(MovieJdbcRepository movieJdbcRepository,
+                                    @Value("${movies.partitions.years-ahead:2}") int yearsAhead) {
+        this(movieJdbcRepository, yearsAhead, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Конструктор для инициализации MoviePartitionMaintainer с заданными часами.
+     *
+     * @param movieJdbcRepository репозиторий фильмов для создания секций
+     * @param yearsAhead количество лет после текущего, для которых секции создаются заранее
+     * @param clock часы для определения текущего года
+     */
+    public MoviePartitionMaintainer(MovieJdbcRepository movieJdbcRepository, int yearsAhead, Clock clock) {
+        this.movieJdbcRepository = movieJdbcRepository;
+        this.yearsAhead = yearsAhead;
+        this.clock = clock;
+    }
+
+    /**
+     * Создание недостающих секций.
+     * <p>
+     * Выполняется раньше остальных обработчиков запуска приложения, чтобы они читали таблицу уже после переноса фильмов.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Scheduled(fixedDelayString = "${movies.partitions.check-interval:PT1H}",
+            initialDelayString = "${movies.partitions.check-interval:PT1H}")
+    public void maintain() {
+        int currentYear = Year.now(clock).getValue();
+        SortedSet<Integer> years = new TreeSet<>();
+        for (int year = FIRST_YEARLY_PARTITION; year <= currentYear + yearsAhead; year++) {
+            years.add(year);
+        }
+        try {
+            years.addAll(movieJdbcRepository.findDefaultPartitionYears());
+            for (int year : years) {
+                if (movieJdbcRepository.createYearPartition(year)) {
+                    log.debug("СОБЫТИЕ: Создана секция фильмов за {} год", year);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.debug("ОШИБКА: Не удалось создать секции фильмов: {}", e.getMessage());
+        }
+    }
+}
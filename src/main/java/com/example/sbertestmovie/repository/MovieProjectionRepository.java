@@ -0,0 +1,26 @@
+package com.example.sbertestmovie.repository;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Movie;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Выборки фильмов по условиям сразу в виде DTO-объектов.
+ * <p>
+ * Дополняет {@link MovieRepository}: {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}
+ * выбирает по условию только сущности целиком.
+ * </p>
+ */
+public interface MovieProjectionRepository {
+
+    /**
+     * Получение страницы фильмов, удовлетворяющих условию, сразу в виде DTO-объектов.
+     *
+     * @param spec условие выборки
+     * @param pageable параметры пагинации (номер страницы, размер страницы и сортировка)
+     * @return страница DTO-объектов фильмов
+     */
+    Page<MovieDto> findAllProjected(Specification<Movie> spec, Pageable pageable);
+}
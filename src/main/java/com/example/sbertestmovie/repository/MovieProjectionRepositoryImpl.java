@@ -0,0 +1,84 @@
+package com.example.sbertestmovie.repository;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Movie;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+/**
+ * Реализация {@link MovieProjectionRepository} на Criteria API.
+ * <p>
+ * Столбцы выбираются конструктором {@link MovieDto} ({@code CriteriaBuilder.construct}), поэтому сущности
+ * не создаются и не попадают в контекст персистентности. Результаты запросов страницы и количества,
+ * как и у остальных запросов страниц {@link MovieRepository}, хранятся в кэше запросов Hibernate.
+ * </p>
+ */
+public class MovieProjectionRepositoryImpl implements MovieProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<MovieDto> findAllProjected(Specification<Movie> spec, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MovieDto> query = cb.createQuery(MovieDto.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.construct(MovieDto.class,
+                root.get("title"), root.get("director"), root.get("releaseDate"), root.get("genre")));
+        where(query, root, cb, spec);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<MovieDto> typedQuery = entityManager.createQuery(query)
+                .setHint(MovieRepository.CACHEABLE, true);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<MovieDto> content = typedQuery.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    /**
+     * Подсчёт количества фильмов, удовлетворяющих условию. Вспомогательный метод.
+     *
+     * @param spec условие выборки
+     * @return количество фильмов
+     */
+    private long count(Specification<Movie> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Movie> root = query.from(Movie.class);
+        query.select(cb.count(root));
+        where(query, root, cb, spec);
+        return entityManager.createQuery(query)
+                .setHint(MovieRepository.CACHEABLE, true)
+                .getSingleResult();
+    }
+
+    /**
+     * Добавление условия выборки к запросу. Вспомогательный метод.
+     *
+     * @param query запрос
+     * @param root корень запроса
+     * @param cb построитель условий
+     * @param spec условие выборки или {@code null}
+     */
+    private static void where(CriteriaQuery<?> query, Root<Movie> root, CriteriaBuilder cb, Specification<Movie> spec) {
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
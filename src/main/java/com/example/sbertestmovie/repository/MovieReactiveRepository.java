@@ -0,0 +1,177 @@
+package com.example.sbertestmovie.repository;
+
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Реактивный репозиторий для работы с таблицей фильмов через R2DBC.
+ * <p>
+ * Используется в профиле {@code reactive}. Работает с той же таблицей {@code movies},
+ * что и {@link MovieRepository}. Списки читаются с ограниченным размером выборки,
+ * поэтому строки запрашиваются из базы данных по мере спроса подписчика.
+ * </p>
+ */
+@Repository
+@Profile("reactive")
+public class MovieReactiveRepository {
+
+    private static final String COLUMNS = "id, title, director, release_date, genre";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    /**
+     * Конструктор для инициализации MovieReactiveRepository.
+     *
+     * @param databaseClient клиент для выполнения R2DBC-запросов
+     * @param fetchSize количество строк, получаемых из базы данных за одно обращение
+     */
+    @Autowired
+    public MovieReactiveRepository(DatabaseClient databaseClient,
+                                   @Value("${movies.export.fetch-size:1000}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Получение страницы фильмов в порядке возрастания id.
+     *
+     * @param limit размер страницы
+     * @param offset количество пропускаемых фильмов
+     * @return поток фильмов
+     */
+    public Flux<Movie> findAll(int limit, long offset) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM movies ORDER BY id LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toMovie(row))
+                .all();
+    }
+
+    /**
+     * Потоковое чтение всех фильмов в порядке возрастания id.
+     *
+     * @return поток фильмов
+     */
+    public Flux<Movie> findAll() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM movies ORDER BY id")
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map((row, metadata) -> toMovie(row))
+                .all();
+    }
+
+    /**
+     * Поиск фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return фильм или пустой результат, если фильм не найден
+     */
+    public Mono<Movie> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM movies WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toMovie(row))
+                .one();
+    }
+
+    /**
+     * Вставка фильма.
+     *
+     * @param movie фильм для вставки
+     * @return вставленный фильм с идентификатором, сгенерированным базой данных
+     */
+    public Mono<Movie> insert(Movie movie) {
+        return databaseClient.sql("INSERT INTO movies (title, director, release_date, genre) "
+                        + "VALUES (:title, :director, :releaseDate, :genre) RETURNING " + COLUMNS)
+                .bind("title", movie.getTitle())
+                .bind("director", movie.getDirector())
+                .bind("releaseDate", movie.getReleaseDate())
+                .bind("genre", movie.getGenre().name())
+                .map((row, metadata) -> toMovie(row))
+                .one();
+    }
+
+    /**
+     * Обновление заданных полей фильма одним запросом.
+     * <p>
+     * Поля со значением {@code null} сохраняют текущее значение. Версия записи
+     * и время последнего изменения обновляются так же, как при изменении через JPA.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @param changes фильм с новыми значениями полей
+     * @return обновлённый фильм или пустой результат, если фильм не найден
+     */
+    public Mono<Movie> update(Long id, Movie changes) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("UPDATE movies SET "
+                + "title = COALESCE(:title, title), "
+                + "director = COALESCE(:director, director), "
+                + "release_date = COALESCE(:releaseDate, release_date), "
+                + "genre = COALESCE(:genre, genre), "
+                + "version = version + 1, "
+                + "updated_at = now() "
+                + "WHERE id = :id RETURNING " + COLUMNS);
+        spec = bindNullable(spec, "title", changes.getTitle(), String.class);
+        spec = bindNullable(spec, "director", changes.getDirector(), String.class);
+        spec = bindNullable(spec, "releaseDate", changes.getReleaseDate(), LocalDate.class);
+        spec = bindNullable(spec, "genre", Objects.isNull(changes.getGenre()) ? null : changes.getGenre().name(),
+                String.class);
+        return spec.bind("id", id)
+                .map((row, metadata) -> toMovie(row))
+                .one();
+    }
+
+    /**
+     * Удаление фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return количество удалённых строк
+     */
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM movies WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Привязка значения параметра, которое может быть {@code null}. Вспомогательный метод.
+     *
+     * @param spec запрос
+     * @param name имя параметра
+     * @param value значение параметра
+     * @param type тип параметра
+     * @return запрос с привязанным параметром
+     */
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                                  Object value, Class<?> type) {
+        return Objects.isNull(value) ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    /**
+     * Преобразование строки результата запроса в сущность {@link Movie}. Вспомогательный метод.
+     *
+     * @param row строка результата запроса
+     * @return сущность фильма
+     */
+    private static Movie toMovie(Row row) {
+        Movie movie = new Movie(
+                row.get("title", String.class),
+                row.get("director", String.class),
+                row.get("release_date", LocalDate.class),
+                Genre.valueOf(row.get("genre", String.class))
+        );
+        movie.setId(row.get("id", Long.class));
+        return movie;
+    }
+}
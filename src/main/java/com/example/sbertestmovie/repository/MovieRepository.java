@@ -1,15 +1,62 @@
 package com.example.sbertestmovie.repository;
 
+import com.example.sbertestmovie.dto.MovieDto;
 import com.example.sbertestmovie.entity.Movie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
  * Репозиторий для работы с сущностями {@link Movie}.
  * <p>
  * Расширяет {@link JpaRepository} для предоставления стандартных CRUD операций и дополнительных методов для работы с {@link Movie}.
+ * Расширяет {@link JpaSpecificationExecutor} и {@link MovieProjectionRepository} для выборки по условиям
+ * из {@link MovieSpecifications}.
+ * </p>
+ * <p>
+ * Результаты JPQL-запросов страниц и срезов хранятся в кэше запросов Hibernate ({@link #CACHEABLE}),
+ * а сами фильмы — в кэше второго уровня. Keyset-срезы выбираются {@link MovieJdbcRepository} и не кэшируются.
  * </p>
  */
 @Repository
-public interface MovieRepository extends JpaRepository<Movie, Long> {
+public interface MovieRepository extends JpaRepository<Movie, Long>, JpaSpecificationExecutor<Movie>,
+        MovieProjectionRepository {
+
+    /**
+     * Подсказка, помещающая результат запроса (и запроса количества) в кэш запросов Hibernate.
+     */
+    String CACHEABLE = HibernateHints.HINT_CACHEABLE;
+
+    /**
+     * Получение страницы фильмов сразу в виде DTO-объектов.
+     * <p>
+     * Столбцы выбираются конструктором {@link MovieDto}, поэтому сущности не создаются
+     * и не попадают в контекст персистентности.
+     * </p>
+     *
+     * @param pageable параметры пагинации (номер страницы, размер страницы и сортировка)
+     * @return страница DTO-объектов фильмов
+     */
+    @Query(value = "SELECT new com.example.sbertestmovie.dto.MovieDto(m.title, m.director, m.releaseDate, m.genre) "
+            + "FROM Movie m",
+            countQuery = "SELECT count(m) FROM Movie m")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    Page<MovieDto> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Получение среза фильмов сразу в виде DTO-объектов без подсчёта общего количества.
+     *
+     * @param pageable параметры пагинации (номер страницы, размер страницы и сортировка)
+     * @return срез DTO-объектов фильмов
+     */
+    @Query("SELECT new com.example.sbertestmovie.dto.MovieDto(m.title, m.director, m.releaseDate, m.genre) FROM Movie m")
+    @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
+    Slice<MovieDto> findSliceProjectedBy(Pageable pageable);
 }
@@ -0,0 +1,121 @@
+package com.example.sbertestmovie.repository;
+
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Условия выборки фильмов для {@link MovieRepository}.
+ * <p>
+ * Каждое условие сравнивает столбец таблицы напрямую, без функций над ним,
+ * чтобы запрос мог использовать индексы таблицы {@code movies}.
+ * Поиск по префиксу выполняется через {@code LIKE 'префикс%'}.
+ * </p>
+ */
+public final class MovieSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private MovieSpecifications() {
+    }
+
+    /**
+     * Условие, объединяющее все заданные в фильтре ограничения.
+     *
+     * @param filter условия фильтрации
+     * @return условие выборки
+     */
+    public static Specification<Movie> byFilter(MovieFilterDto filter) {
+        return Specification.where(hasGenre(filter.getGenre()))
+                .and(directorStartsWith(filter.getDirector()))
+                .and(titleStartsWith(filter.getTitle()))
+                .and(releasedFrom(filter.getReleasedFrom()))
+                .and(releasedTo(filter.getReleasedTo()));
+    }
+
+    /**
+     * Условие совпадения жанра.
+     *
+     * @param genre жанр или {@code null}, если условие не задано
+     * @return условие выборки или {@code null}
+     */
+    public static Specification<Movie> hasGenre(Genre genre) {
+        if (Objects.isNull(genre)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("genre"), genre);
+    }
+
+    /**
+     * Условие начала имени режиссёра.
+     *
+     * @param prefix префикс или {@code null}, если условие не задано
+     * @return условие выборки или {@code null}
+     */
+    public static Specification<Movie> directorStartsWith(String prefix) {
+        if (Objects.isNull(prefix) || prefix.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("director"), toLikePrefix(prefix), LIKE_ESCAPE);
+    }
+
+    /**
+     * Условие начала названия фильма.
+     *
+     * @param prefix префикс или {@code null}, если условие не задано
+     * @return условие выборки или {@code null}
+     */
+    public static Specification<Movie> titleStartsWith(String prefix) {
+        if (Objects.isNull(prefix) || prefix.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.like(root.get("title"), toLikePrefix(prefix), LIKE_ESCAPE);
+    }
+
+    /**
+     * Условие нижней границы даты релиза (включительно).
+     *
+     * @param from дата или {@code null}, если условие не задано
+     * @return условие выборки или {@code null}
+     */
+    public static Specification<Movie> releasedFrom(LocalDate from) {
+        if (Objects.isNull(from)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("releaseDate"), from);
+    }
+
+    /**
+     * Условие верхней границы даты релиза (включительно).
+     *
+     * @param to дата или {@code null}, если условие не задано
+     * @return условие выборки или {@code null}
+     */
+    public static Specification<Movie> releasedTo(LocalDate to) {
+        if (Objects.isNull(to)) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("releaseDate"), to);
+    }
+
+    /**
+     * Построение шаблона LIKE для поиска по префиксу. Вспомогательный метод.
+     * <p>
+     * Служебные символы шаблона в префиксе экранируются, чтобы они сравнивались буквально.
+     * </p>
+     *
+     * @param prefix префикс
+     * @return шаблон вида {@code префикс%}
+     */
+    private static String toLikePrefix(String prefix) {
+        String escaped = prefix
+                .replace(String.valueOf(LIKE_ESCAPE), String.valueOf(LIKE_ESCAPE) + LIKE_ESCAPE)
+                .replace("%", LIKE_ESCAPE + "%")
+                .replace("_", LIKE_ESCAPE + "_");
+        return escaped + "%";
+    }
+}
@@ -0,0 +1,401 @@
+package com.example.sbertestmovie.search;
+
+import com.example.sbertestmovie.entity.Movie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Полнотекстовый индекс фильмов по названию и режиссёру, хранящийся в памяти приложения.
+ * <p>
+ * Текст фильма разбивается на слова, а слова — на триграммы (с дополнением пробелами
+ * по краям, как в pg_trgm). Для каждой триграммы хранится список документов в виде
+ * примитивных массивов {@code int}. Результаты ранжируются по BM25, а документ попадает
+ * в выдачу, если совпадает заметная доля триграмм запроса, поэтому поиск устойчив к опечаткам.
+ * </p>
+ * <p>
+ * Индекс потокобезопасен: поиск выполняется под блокировкой чтения, изменения —
+ * под блокировкой записи. Для каждого документа хранятся его позиции в списках триграмм,
+ * поэтому удаление не просматривает списки и не задерживает поиск на частых триграммах.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MovieSearchIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    /**
+     * Минимальная доля триграмм запроса, которая должна встретиться в документе.
+     */
+    private static final float MIN_MATCH_RATIO = 0.3f;
+
+    private static final long[] NO_RESULTS = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByMovieId = new HashMap<>();
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+
+    private long[] movieIds = new long[1024];
+    private long[][] docTerms = new long[1024][];
+    private int[][] docPositions = new int[1024][];
+    private int[] docLengths = new int[1024];
+    private int[] freeDocs = new int[64];
+    private int freeDocCount;
+    private int maxDoc;
+    private int docCount;
+    private long totalLength;
+
+    /**
+     * Добавление фильма в индекс или замена ранее проиндексированного фильма с тем же id.
+     *
+     * @param movie фильм с заполненным идентификатором
+     */
+    public void index(Movie movie) {
+        Terms terms = Terms.of(movie.getTitle() + " " + movie.getDirector());
+        lock.writeLock().lock();
+        try {
+            removeDoc(movie.getId());
+            int doc = allocateDoc();
+            movieIds[doc] = movie.getId();
+            docTerms[doc] = terms.keys;
+            docLengths[doc] = terms.length;
+            int[] positions = new int[terms.keys.length];
+            for (int i = 0; i < terms.keys.length; i++) {
+                positions[i] = postings.computeIfAbsent(terms.keys[i], key -> new Postings()).add(doc, terms.freqs[i]);
+            }
+            docPositions[doc] = positions;
+            docsByMovieId.put(movie.getId(), doc);
+            docCount++;
+            totalLength += terms.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаление фильма из индекса.
+     *
+     * @param movieId идентификатор фильма
+     */
+    public void remove(Long movieId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Получение идентификаторов всех проиндексированных фильмов.
+     *
+     * @return идентификаторы фильмов в произвольном порядке
+     */
+    public long[] movieIds() {
+        lock.readLock().lock();
+        try {
+            return docsByMovieId.keySet().stream().mapToLong(Long::longValue).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Получение количества проиндексированных фильмов.
+     *
+     * @return количество фильмов в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск фильмов по запросу.
+     *
+     * @param query текст запроса
+     * @param limit максимальное количество результатов
+     * @return идентификаторы найденных фильмов в порядке убывания релевантности
+     */
+    public long[] search(String query, int limit) {
+        Terms terms = Terms.of(query);
+        if (terms.keys.length == 0) {
+            return NO_RESULTS;
+        }
+        int minMatch = Math.max(1, (int) Math.ceil(terms.keys.length * MIN_MATCH_RATIO));
+
+        lock.readLock().lock();
+        Scratch scratch = borrowScratch();
+        try {
+            if (docCount == 0) {
+                return NO_RESULTS;
+            }
+            scratch.ensureCapacity(maxDoc);
+            float[] scores = scratch.scores;
+            int[] hits = scratch.hits;
+            int[] touched = scratch.touched;
+            int touchedCount = 0;
+            float avgLength = (float) totalLength / docCount;
+
+            for (long key : terms.keys) {
+                Postings termPostings = postings.get(key);
+                if (Objects.isNull(termPostings)) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (docCount - termPostings.size + 0.5) / (termPostings.size + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int doc = termPostings.docs[i];
+                    int tf = termPostings.freqs[i];
+                    if (hits[doc] == 0) {
+                        touched[touchedCount++] = doc;
+                    }
+                    hits[doc]++;
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> compare(scores, a, b));
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (hits[doc] >= minMatch) {
+                    top.offer(doc);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            long[] result = new long[top.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = movieIds[top.poll()];
+            }
+            scratch.reset(touchedCount);
+            return result;
+        } finally {
+            scratchPool.offer(scratch);
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Сравнение документов по релевантности (по возрастанию, при равенстве — по убыванию id фильма).
+     * Вспомогательный метод.
+     *
+     * @param scores накопленные оценки документов
+     * @param a номер первого документа
+     * @param b номер второго документа
+     * @return результат сравнения
+     */
+    private int compare(float[] scores, int a, int b) {
+        int byScore = Float.compare(scores[a], scores[b]);
+        return byScore != 0 ? byScore : Long.compare(movieIds[b], movieIds[a]);
+    }
+
+    /**
+     * Удаление документа фильма из списков триграмм. Вызывается под блокировкой записи.
+     * Вспомогательный метод.
+     * <p>
+     * Документ удаляется из каждого списка по сохранённой позиции: на его место переносится
+     * последний документ списка, и позиция перенесённого документа обновляется.
+     * </p>
+     *
+     * @param movieId идентификатор фильма
+     */
+    private void removeDoc(Long movieId) {
+        Integer doc = docsByMovieId.remove(movieId);
+        if (Objects.isNull(doc)) {
+            return;
+        }
+        long[] keys = docTerms[doc];
+        int[] positions = docPositions[doc];
+        for (int i = 0; i < keys.length; i++) {
+            Postings termPostings = postings.get(keys[i]);
+            int moved = termPostings.removeAt(positions[i]);
+            if (moved >= 0) {
+                docPositions[moved][Arrays.binarySearch(docTerms[moved], keys[i])] = positions[i];
+            }
+            if (termPostings.size == 0) {
+                postings.remove(keys[i]);
+            }
+        }
+        docCount--;
+        totalLength -= docLengths[doc];
+        docTerms[doc] = null;
+        docPositions[doc] = null;
+        if (freeDocCount == freeDocs.length) {
+            freeDocs = Arrays.copyOf(freeDocs, freeDocs.length * 2);
+        }
+        freeDocs[freeDocCount++] = doc;
+    }
+
+    /**
+     * Выделение номера документа: повторно используется освободившийся номер
+     * или выделяется новый. Вызывается под блокировкой записи. Вспомогательный метод.
+     *
+     * @return номер документа
+     */
+    private int allocateDoc() {
+        if (freeDocCount > 0) {
+            return freeDocs[--freeDocCount];
+        }
+        if (maxDoc == movieIds.length) {
+            int capacity = movieIds.length * 2;
+            movieIds = Arrays.copyOf(movieIds, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+            docPositions = Arrays.copyOf(docPositions, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+        }
+        return maxDoc++;
+    }
+
+    /**
+     * Получение буферов для накопления оценок из пула. Вспомогательный метод.
+     *
+     * @return буферы для одного поискового запроса
+     */
+    private Scratch borrowScratch() {
+        Scratch scratch = scratchPool.poll();
+        return Objects.isNull(scratch) ? new Scratch() : scratch;
+    }
+
+    /**
+     * Список документов, содержащих триграмму, с частотой триграммы в каждом документе.
+     */
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+
+        private int add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            return size++;
+        }
+
+        /**
+         * Удаление документа по позиции с переносом последнего документа на его место.
+         *
+         * @param position позиция удаляемого документа
+         * @return номер перенесённого документа или -1, если удалялся последний документ списка
+         */
+        private int removeAt(int position) {
+            size--;
+            if (position == size) {
+                return -1;
+            }
+            docs[position] = docs[size];
+            freqs[position] = freqs[size];
+            return docs[position];
+        }
+    }
+
+    /**
+     * Буферы для накопления оценок документов при выполнении одного запроса.
+     * Переиспользуются между запросами через пул.
+     */
+    private static final class Scratch {
+        private float[] scores = new float[0];
+        private int[] hits = new int[0];
+        private int[] touched = new int[0];
+
+        private void ensureCapacity(int capacity) {
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                hits = new int[capacity];
+                touched = new int[capacity];
+            }
+        }
+
+        private void reset(int touchedCount) {
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                scores[doc] = 0;
+                hits[doc] = 0;
+            }
+        }
+    }
+
+    /**
+     * Уникальные триграммы текста с их частотами.
+     * <p>
+     * Триграмма из трёх символов упаковывается в {@code long} по 16 бит на символ.
+     * </p>
+     */
+    private static final class Terms {
+        private final long[] keys;
+        private final int[] freqs;
+        private final int length;
+
+        private Terms(long[] keys, int[] freqs, int length) {
+            this.keys = keys;
+            this.freqs = freqs;
+            this.length = length;
+        }
+
+        private static Terms of(String text) {
+            String normalized = text.toLowerCase(Locale.ROOT);
+            long[] all = new long[normalized.length() * 2 + 4];
+            int count = 0;
+            int start = -1;
+            for (int i = 0; i <= normalized.length(); i++) {
+                boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    count = addWordTrigrams(normalized, start, i, all, count);
+                    start = -1;
+                }
+            }
+            Arrays.sort(all, 0, count);
+
+            long[] keys = new long[count];
+            int[] freqs = new int[count];
+            int unique = 0;
+            for (int i = 0; i < count; i++) {
+                if (unique > 0 && keys[unique - 1] == all[i]) {
+                    freqs[unique - 1]++;
+                } else {
+                    keys[unique] = all[i];
+                    freqs[unique] = 1;
+                    unique++;
+                }
+            }
+            return new Terms(Arrays.copyOf(keys, unique), Arrays.copyOf(freqs, unique), count);
+        }
+
+        private static int addWordTrigrams(String text, int start, int end, long[] target, int count) {
+            int length = end - start + 3;
+            for (int i = 0; i + 3 <= length; i++) {
+                target[count++] = ((long) padded(text, start, end, i) << 32)
+                        | ((long) padded(text, start, end, i + 1) << 16)
+                        | padded(text, start, end, i + 2);
+            }
+            return count;
+        }
+
+        private static char padded(String text, int start, int end, int position) {
+            int index = start + position - 2;
+            return index < start || index >= end ? ' ' : text.charAt(index);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.sbertestmovie.search;
+
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Компонент, заполняющий {@link MovieSearchIndex} при запуске приложения.
+ * <p>
+ * Все фильмы читаются одним потоковым проходом по таблице. Дальнейшие изменения
+ * попадают в индекс из сервисного слоя, а изменения других экземпляров приложения —
+ * через {@link com.example.sbertestmovie.cache.MovieInvalidationBus}, которая перечитывает изменённые фильмы
+ * ({@link #reload(Collection)}), а после потери уведомлений строит индекс заново ({@link #load()}).
+ * </p>
+ * <p>
+ * Индекс строится после создания всех компонентов, но до запуска веб-сервера: пока идёт проход
+ * по таблице, запросы на изменение ещё не принимаются, и прочитанная при проходе старая версия
+ * фильма не может перезаписать в индексе более новую.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieSearchIndexLoader implements SmartInitializingSingleton {
+
+    private final MovieJdbcRepository movieJdbcRepository;
+    private final MovieSearchIndex movieSearchIndex;
+
+    /**
+     * Конструктор для инициализации MovieSearchIndexLoader.
+     *
+     * @param movieJdbcRepository репозиторий фильмов для потокового чтения
+     * @param movieSearchIndex заполняемый поисковый индекс
+     */
+    @Autowired
+    public MovieSearchIndexLoader(MovieJdbcRepository movieJdbcRepository, MovieSearchIndex movieSearchIndex) {
+        this.movieJdbcRepository = movieJdbcRepository;
+        this.movieSearchIndex = movieSearchIndex;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    /**
+     * Заполнение поискового индекса всеми фильмами из базы данных.
+     * <p>
+     * Фильмы, которые были в индексе до прохода по таблице, но не встретились в ней, удаляются из индекса.
+     * Фильмы, добавленные в индекс во время прохода, не удаляются.
+     * </p>
+     */
+    public void load() {
+        log.info("СОБЫТИЕ: Построение поискового индекса фильмов");
+        long start = System.currentTimeMillis();
+        long[] indexedIds = movieSearchIndex.movieIds();
+        Set<Long> loadedIds = new HashSet<>();
+        movieJdbcRepository.forEach(movie -> {
+            movieSearchIndex.index(movie);
+            loadedIds.add(movie.getId());
+        });
+        for (long id : indexedIds) {
+            if (!loadedIds.contains(id)) {
+                movieSearchIndex.remove(id);
+            }
+        }
+        log.info("Поисковый индекс построен: {} фильмов за {} мс",
+                movieSearchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Перечитывание фильмов из базы данных в поисковый индекс одним запросом.
+     * <p>
+     * Найденные фильмы индексируются заново, отсутствующие в базе данных удаляются из индекса.
+     * </p>
+     *
+     * @param ids идентификаторы изменённых фильмов
+     */
+    public void reload(Collection<Long> ids) {
+        Set<Long> missing = new HashSet<>(ids);
+        for (Movie movie : movieJdbcRepository.findAllById(ids)) {
+            movieSearchIndex.index(movie);
+            missing.remove(movie.getId());
+        }
+        missing.forEach(movieSearchIndex::remove);
+    }
+}
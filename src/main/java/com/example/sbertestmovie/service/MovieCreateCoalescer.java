@@ -0,0 +1,329 @@
+package com.example.sbertestmovie.service;
+
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.exception.SaveException;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Объединение одновременных созданий отдельных фильмов в общие вставки (group commit).
+ * <p>
+ * Вызывающий поток ставит фильм в очередь и ждёт результата. Отдельный поток забирает из очереди
+ * все накопившиеся фильмы, при необходимости ждёт следующих не дольше {@code movies.create.coalesce.max-delay},
+ * и вставляет до {@code movies.create.coalesce.max-batch-size} фильмов одним JDBC-пакетом в одной транзакции,
+ * то есть с одной фиксацией вместо фиксации на каждый фильм. Пока пакет вставляется, очередь
+ * наполняется следующими фильмами, поэтому под нагрузкой пакеты растут сами, а без нагрузки
+ * фильм ждёт не больше {@code max-delay}.
+ * </p>
+ * <p>
+ * Если пакет не удалось вставить, его фильмы вставляются по одному, чтобы ошибка одного запроса
+ * не отменяла создание остальных. Размеры пакетов записываются в метрику {@code movies.create.batch.size}.
+ * </p>
+ * <p>
+ * Вызывающий поток ждёт попадания фильма в пакет не дольше {@code movies.create.coalesce.timeout}: поток вставки
+ * забирает каждый фильм перед вставкой, и фильм, который уже вставляется, вызывающий поток дожидается до конца,
+ * чтобы не сообщить об ошибке для сохранённого фильма. Когда поток вставки
+ * завершается (при остановке приложения или из-за ошибки), фильмы, оставшиеся в очереди, получают
+ * {@link SaveException}, и новые фильмы больше не принимаются.
+ * </p>
+ * <p>
+ * Объединение включается настройкой {@code movies.create.coalesce.enabled}.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieCreateCoalescer implements MeterBinder {
+
+    private static final long POLL_TIMEOUT_MILLIS = 1000;
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final MovieJdbcRepository movieJdbcRepository;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingCreate> queue = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private volatile DistributionSummary batchSizes;
+    private Thread flusher;
+
+    /**
+     * Конструктор для инициализации MovieCreateCoalescer.
+     *
+     * @param movieJdbcRepository репозиторий для пакетной вставки фильмов
+     * @param enabled включено ли объединение
+     * @param maxBatchSize максимальное количество фильмов в одной вставке
+     * @param maxDelay максимальное время ожидания следующих фильмов перед вставкой
+     * @param timeout максимальное время ожидания вставки вызывающим потоком
+     */
+    @Autowired
+    public MovieCreateCoalescer(MovieJdbcRepository movieJdbcRepository,
+                                @Value("${movies.create.coalesce.enabled:false}") boolean enabled,
+                                @Value("${movies.create.coalesce.max-batch-size:256}") int maxBatchSize,
+                                @Value("${movies.create.coalesce.max-delay:PT0.001S}") Duration maxDelay,
+                                @Value("${movies.create.coalesce.timeout:PT10S}") Duration timeout) {
+        if (maxBatchSize < 1 || maxDelay.isNegative() || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("Некорректные параметры объединения созданий фильмов");
+        }
+        this.movieJdbcRepository = movieJdbcRepository;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Проверка, включено ли объединение.
+     *
+     * @return {@code true}, если фильмы нужно создавать через {@link #insert(Movie)}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Вставка фильма в составе общего пакета.
+     * <p>
+     * Метод блокирует вызывающий поток до фиксации транзакции, в которой вставлен фильм,
+     * и не должен вызываться внутри транзакции: иначе соединение будет занято на всё время ожидания.
+     * </p>
+     * <p>
+     * Если время ожидания истекло, а фильм ещё не попал в пакет, он исключается из вставки. Если фильм
+     * уже вставляется, метод ждёт результата вставки, каким бы он ни был.
+     * </p>
+     *
+     * @param movie фильм для вставки
+     * @return та же сущность фильма с заполненным идентификатором
+     * @throws SaveException если фильм не удалось вставить, объединение остановлено или время ожидания истекло
+     */
+    public Movie insert(Movie movie) {
+        if (!running) {
+            throw new SaveException("Объединение созданий фильмов не запущено");
+        }
+        PendingCreate pending = new PendingCreate(movie);
+        queue.add(pending);
+        if (!running && queue.remove(pending)) {
+            // Поток вставки мог завершиться, уже разобрав очередь: фильм никто не вставит
+            throw new SaveException("Объединение созданий фильмов не запущено");
+        }
+        try {
+            return pending.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SaveException saveException
+                    ? saveException
+                    : new SaveException("Не удалось создать фильм");
+        } catch (TimeoutException e) {
+            log.debug("ОШИБКА: Истекло время ожидания объединённой вставки фильма");
+            return withdraw(pending, new SaveException("Истекло время ожидания создания фильма"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return withdraw(pending, new SaveException("Создание фильма прервано"));
+        }
+    }
+
+    /**
+     * Запуск потока вставки.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled || running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::run, "movies-create-coalescer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Остановка потока вставки; фильмы, уже стоящие в очереди, вставляются перед остановкой.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            flusher.join(STOP_TIMEOUT_MILLIS);
+        }
+    }
+
+    /**
+     * Регистрация метрики размеров пакетов.
+     *
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        batchSizes = DistributionSummary.builder("movies.create.batch.size")
+                .description("Количество фильмов в одной объединённой вставке")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Отказ от ожидания вставки. Вспомогательный метод.
+     * <p>
+     * Фильм, ещё не забранный потоком вставки, исключается из вставки, и запрос получает ошибку.
+     * Если поток вставки уже забрал фильм, метод дожидается результата вставки, чтобы не сообщить
+     * об ошибке для сохранённого фильма.
+     * </p>
+     *
+     * @param pending фильм, ожидающий вставки
+     * @param error ошибка для фильма, исключённого из вставки
+     * @return вставленный фильм
+     * @throws SaveException если фильм исключён из вставки или не был вставлен
+     */
+    private static Movie withdraw(PendingCreate pending, SaveException error) {
+        if (pending.claimed.compareAndSet(false, true)) {
+            pending.result.completeExceptionally(error);
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof SaveException saveException
+                    ? saveException
+                    : new SaveException("Не удалось создать фильм");
+        }
+    }
+
+    /**
+     * Цикл потока вставки. Вспомогательный метод.
+     * <p>
+     * При выходе из цикла, в том числе из-за {@link Error}, приём фильмов прекращается, оставшиеся
+     * в очереди фильмы вставляются, а фильмы, которые вставить не удалось, получают {@link SaveException}.
+     * </p>
+     */
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (running) {
+                PendingCreate first = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            running = false;
+            queue.drainTo(batch);
+            try {
+                for (int from = 0; from < batch.size(); from += maxBatchSize) {
+                    flush(batch.subList(from, Math.min(batch.size(), from + maxBatchSize)));
+                }
+            } finally {
+                SaveException stopped = new SaveException("Объединение созданий фильмов остановлено");
+                batch.forEach(pending -> pending.result.completeExceptionally(stopped));
+                for (PendingCreate pending = queue.poll(); pending != null; pending = queue.poll()) {
+                    pending.result.completeExceptionally(stopped);
+                }
+            }
+        }
+    }
+
+    /**
+     * Добор фильмов в пакет из очереди с ожиданием не дольше {@code maxDelay}. Вспомогательный метод.
+     *
+     * @param batch пакет, в который добавляются фильмы
+     * @throws InterruptedException если поток вставки остановлен во время ожидания
+     */
+    private void collect(List<PendingCreate> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Вставка пакета и передача результатов ожидающим потокам. Вспомогательный метод.
+     * <p>
+     * При ошибке пакет вставляется по одному фильму, и ошибка передаётся только своему запросу.
+     * Перед вставкой каждый фильм забирается у вызывающего потока; фильмы, от ожидания которых вызывающий поток
+     * уже отказался, не вставляются.
+     * </p>
+     *
+     * @param pendingBatch фильмы пакета
+     */
+    private void flush(List<PendingCreate> pendingBatch) {
+        List<PendingCreate> batch = pendingBatch.stream()
+                .filter(pending -> pending.claimed.compareAndSet(false, true))
+                .toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+        try {
+            movieJdbcRepository.insertAll(batch.stream().map(pending -> pending.movie).toList());
+            batch.forEach(pending -> pending.result.complete(pending.movie));
+            log.debug("СОБЫТИЕ: Объединённая вставка фильмов, количество: {}", batch.size());
+            return;
+        } catch (Exception e) {
+            log.debug("ОШИБКА: Не удалось вставить пакет фильмов, добавляем по одному");
+        }
+        for (PendingCreate pending : batch) {
+            try {
+                movieJdbcRepository.insertAll(List.of(pending.movie));
+                pending.result.complete(pending.movie);
+            } catch (Exception e) {
+                log.debug("ОШИБКА: Не удалось создать фильм");
+                pending.result.completeExceptionally(new SaveException("Не удалось создать фильм"));
+            }
+        }
+    }
+
+    /**
+     * Фильм, ожидающий вставки, и результат для ожидающего потока.
+     * <p>
+     * Признак {@code claimed} устанавливает тот, кто первым распорядился фильмом: поток вставки перед вставкой
+     * или вызывающий поток при отказе от ожидания.
+     * </p>
+     */
+    private static final class PendingCreate {
+
+        private final Movie movie;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CompletableFuture<Movie> result = new CompletableFuture<>();
+
+        private PendingCreate(Movie movie) {
+            this.movie = movie;
+        }
+    }
+}
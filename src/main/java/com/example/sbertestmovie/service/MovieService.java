@@ -1,10 +1,23 @@
 package com.example.sbertestmovie.service;
 
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.EstimatedPage;
+import com.example.sbertestmovie.dto.MovieBatchResultDto;
 import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.dto.MovieMultiGetDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.dto.VersionedMovieDto;
 import com.example.sbertestmovie.entity.Movie;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
 /**
  * Интерфейс сервиса для работы с фильмами.
  * Определяет методы для выполнения CRUD операций над объектами фильмов.
@@ -19,6 +32,93 @@ public interface MovieService {
      */
     Page<MovieDto> getAllPageable(Pageable pageable);
 
+    /**
+     * Получение страницы фильмов с оценкой общего количества вместо точного подсчёта.
+     *
+     * @param pageable объект Pageable для настройки пагинации
+     * @return страница с DTO-объектами фильмов и признаком приблизительного общего количества
+     */
+    EstimatedPage<MovieDto> getAllPageableEstimated(Pageable pageable);
+
+    /**
+     * Получение страницы фильмов, удовлетворяющих условиям фильтрации.
+     *
+     * @param filter условия фильтрации
+     * @param pageable объект Pageable для настройки пагинации
+     * @return страница с DTO-объектами фильмов
+     */
+    Page<MovieDto> getAllFiltered(MovieFilterDto filter, Pageable pageable);
+
+    /**
+     * Получение среза фильмов с keyset-пагинацией (без подсчёта общего количества).
+     *
+     * @param after курсор, полученный в предыдущем срезе; пустая строка для первого среза
+     * @param sort поле сортировки для первого среза (id, title, releaseDate)
+     * @param size размер среза
+     * @return срез с DTO-объектами фильмов и курсором следующего среза
+     */
+    MovieSliceDto getAllAfter(String after, String sort, int size);
+
+    /**
+     * Получение страницы фильмов, если каталог изменился, с чтением версии каталога в той же транзакции.
+     *
+     * @param filter условия фильтрации
+     * @param pageable объект Pageable для настройки пагинации
+     * @param estimateCount оценивать общее количество фильмов вместо точного подсчёта
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @return страница с DTO-объектами фильмов или {@code null}, если каталог не изменился
+     */
+    Page<MovieDto> getPageIfModified(MovieFilterDto filter, Pageable pageable, boolean estimateCount,
+                                     Predicate<CatalogVersionDto> isNotModified);
+
+    /**
+     * Получение среза фильмов с keyset-пагинацией, если каталог изменился, с чтением версии каталога в той же транзакции.
+     *
+     * @param after курсор, полученный в предыдущем срезе; пустая строка для первого среза
+     * @param sort поле сортировки для первого среза (id, title, releaseDate)
+     * @param size размер среза
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @return срез с DTO-объектами фильмов и курсором следующего среза или {@code null}, если каталог не изменился
+     */
+    MovieSliceDto getAllAfterIfModified(String after, String sort, int size, Predicate<CatalogVersionDto> isNotModified);
+
+    /**
+     * Потоковое получение фильмов одной страницы без построения страницы в памяти.
+     *
+     * @param pageable параметры пагинации
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     */
+    void streamPage(Pageable pageable, Consumer<MovieDto> consumer);
+
+    /**
+     * Потоковое получение фильмов одной страницы, если каталог изменился, с чтением версии каталога в той же транзакции.
+     *
+     * @param pageable параметры пагинации
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     * @return {@code false}, если каталог не изменился и фильмы не читались
+     */
+    boolean streamPageIfModified(Pageable pageable, Predicate<CatalogVersionDto> isNotModified,
+                                 Consumer<MovieDto> consumer);
+
+    /**
+     * Потоковое получение фильмов одной страницы с подсчётом общего количества фильмов, если каталог изменился.
+     *
+     * @param pageable параметры пагинации
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     * @return общее количество фильмов или пустое значение, если каталог не изменился
+     */
+    OptionalLong streamPageCountedIfModified(Pageable pageable, Predicate<CatalogVersionDto> isNotModified,
+                                             Consumer<MovieDto> consumer);
+
+    /**
+     * Потоковая выгрузка всех фильмов.
+     *
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма
+     */
+    void exportAll(Consumer<MovieDto> consumer);
+
     /**
      * Поиск фильма по идентификатору.
      *
@@ -27,6 +127,29 @@ public interface MovieService {
      */
     MovieDto findById(Long id);
 
+    /**
+     * Поиск фильма вместе с версией его записи по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return DTO-объект фильма с версией и временем последнего изменения
+     */
+    VersionedMovieDto findVersionedById(Long id);
+
+    /**
+     * Поиск фильмов по списку идентификаторов.
+     *
+     * @param ids идентификаторы фильмов
+     * @return найденные фильмы в порядке запроса и отсутствующие идентификаторы
+     */
+    MovieMultiGetDto findAllById(List<Long> ids);
+
+    /**
+     * Получение текущей версии каталога фильмов.
+     *
+     * @return версия и время последнего изменения каталога
+     */
+    CatalogVersionDto getCatalogVersion();
+
     /**
      * Получение фильма по идентификатору.
      *
@@ -35,6 +158,23 @@ public interface MovieService {
      */
     Movie getById(Long id);
 
+    /**
+     * Полнотекстовый поиск фильмов по названию и режиссёру.
+     *
+     * @param query текст запроса
+     * @param limit максимальное количество результатов
+     * @return DTO-объекты найденных фильмов в порядке убывания релевантности
+     */
+    List<MovieDto> search(String query, int limit);
+
+    /**
+     * Получение сводной статистики каталога фильмов.
+     *
+     * @param directorLimit максимальное количество режиссёров в статистике
+     * @return количество фильмов по жанрам, годам релиза и режиссёрам
+     */
+    MovieStatsDto getStats(int directorLimit);
+
     /**
      * Создание нового фильма.
      *
@@ -43,6 +183,14 @@ public interface MovieService {
      */
     MovieDto create(MovieDto movieDto);
 
+    /**
+     * Пакетное создание фильмов.
+     *
+     * @param movieDtos список DTO-объектов фильмов для создания
+     * @return количество созданных фильмов и ошибки по отдельным элементам
+     */
+    MovieBatchResultDto createAll(List<MovieDto> movieDtos);
+
     /**
      * Обновление информации о фильме.
      *
@@ -58,4 +206,12 @@ public interface MovieService {
      * @param id идентификатор фильма
      */
     void deleteById(Long id);
+
+    /**
+     * Удаление фильмов по списку идентификаторов.
+     *
+     * @param ids идентификаторы фильмов
+     * @return количество удалённых фильмов
+     */
+    int deleteAllById(List<Long> ids);
 }
@@ -1,59 +1,381 @@
 package com.example.sbertestmovie.service;
 
+import com.example.sbertestmovie.cache.MovieCache;
+import com.example.sbertestmovie.cache.MovieInvalidationBus;
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.EstimatedPage;
+import com.example.sbertestmovie.dto.MovieBatchErrorDto;
+import com.example.sbertestmovie.dto.MovieBatchResultDto;
+import com.example.sbertestmovie.dto.MovieChangeDto;
+import com.example.sbertestmovie.dto.MovieCursor;
 import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
 import com.example.sbertestmovie.dto.MovieMapper;
+import com.example.sbertestmovie.dto.MovieMultiGetDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.dto.VersionedMovieDto;
 import com.example.sbertestmovie.entity.Movie;
 import com.example.sbertestmovie.exception.NotFoundAnythingException;
 import com.example.sbertestmovie.exception.SaveException;
 import com.example.sbertestmovie.exception.WrongParametersException;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
 import com.example.sbertestmovie.repository.MovieRepository;
+import com.example.sbertestmovie.repository.MovieSpecifications;
+import com.example.sbertestmovie.search.MovieSearchIndex;
+import com.example.sbertestmovie.stats.MovieCountEstimator;
+import com.example.sbertestmovie.stats.MovieStats;
+import com.example.sbertestmovie.util.TransactionUtils;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 /**
  * Реализация сервиса для работы с фильмами.
  * Предоставляет методы для создания, обновления, удаления и получения фильмов.
+ * <p>
+ * Длительность каждого публичного метода записывается в таймер {@code movies.service},
+ * а исключения подсчитываются счётчиком {@code movies.service.errors} с тегами метода и типа исключения.
+ * </p>
  */
 @Slf4j
 @Service
+@Profile("!reactive")
+@Timed(value = "movies.service", histogram = true)
+@Counted(value = "movies.service.errors", recordFailuresOnly = true)
 public class MovieServiceImpl implements MovieService {
 
+    /**
+     * Максимальный размер среза при keyset-пагинации.
+     */
+    private static final int MAX_SLICE_SIZE = 2000;
+
+    /**
+     * Максимальное количество результатов полнотекстового поиска.
+     */
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    /**
+     * Максимальное количество идентификаторов в одном запросе на получение фильмов.
+     */
+    private static final int MAX_GET_IDS = 1000;
+
+    /**
+     * Максимальное количество идентификаторов в одном запросе на удаление.
+     */
+    private static final int MAX_DELETE_IDS = 10000;
+
+    /**
+     * Максимальное количество режиссёров в статистике.
+     */
+    private static final int MAX_STATS_DIRECTORS = 1000;
+
     private final MovieRepository movieRepository;
+    private final MovieJdbcRepository movieJdbcRepository;
     private final MovieMapper movieMapper;
+    private final MovieCache movieCache;
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieStats movieStats;
+    private final MovieCountEstimator movieCountEstimator;
+    private final MovieInvalidationBus movieInvalidationBus;
+    private final MovieCreateCoalescer movieCreateCoalescer;
 
     /**
      * Конструктор для инициализации MovieServiceImpl.
      *
      * @param movieRepository репозиторий фильмов
+     * @param movieJdbcRepository репозиторий фильмов для пакетных JDBC-операций
      * @param movieMapper маппер для преобразования entity-объектов в dto-объекты и обратно
+     * @param movieCache кэш DTO-объектов фильмов по идентификатору
+     * @param movieSearchIndex полнотекстовый индекс фильмов
+     * @param movieStats сводная статистика каталога фильмов
+     * @param movieCountEstimator оценка общего количества фильмов
+     * @param movieInvalidationBus шина инвалидации кэшей других экземпляров приложения
+     * @param movieCreateCoalescer объединение одновременных созданий фильмов в общие вставки
      */
     @Autowired
-    public MovieServiceImpl(MovieRepository movieRepository, MovieMapper movieMapper) {
+    public MovieServiceImpl(MovieRepository movieRepository, MovieJdbcRepository movieJdbcRepository,
+                            MovieMapper movieMapper, MovieCache movieCache, MovieSearchIndex movieSearchIndex,
+                            MovieStats movieStats, MovieCountEstimator movieCountEstimator,
+                            MovieInvalidationBus movieInvalidationBus, MovieCreateCoalescer movieCreateCoalescer) {
         this.movieRepository = movieRepository;
+        this.movieJdbcRepository = movieJdbcRepository;
         this.movieMapper = movieMapper;
+        this.movieCache = movieCache;
+        this.movieSearchIndex = movieSearchIndex;
+        this.movieStats = movieStats;
+        this.movieCountEstimator = movieCountEstimator;
+        this.movieInvalidationBus = movieInvalidationBus;
+        this.movieCreateCoalescer = movieCreateCoalescer;
     }
 
     /**
      * Получение списка всех фильмов с поддержкой пагинации.
+     * <p>
+     * Фильмы выбираются сразу в DTO-объекты, без создания сущностей.
+     * </p>
      *
      * @param pageable объект Pageable для настройки пагинации
      * @return страница с DTO-объектами фильмов
      */
+    @Transactional(readOnly = true)
     @Override
     public Page<MovieDto> getAllPageable(Pageable pageable) {
         log.debug("СОБЫТИЕ: Получение списка фильмов");
-        return movieMapper.toPageMovieDto(movieRepository.findAll(pageable));
+        return movieRepository.findAllProjectedBy(pageable);
+    }
+
+    /**
+     * Получение страницы фильмов с оценкой общего количества вместо точного подсчёта.
+     * <p>
+     * Страница читается срезом без запроса {@code count(*)}. Если следующих фильмов нет,
+     * общее количество известно точно; иначе используется оценка {@link MovieCountEstimator},
+     * но не меньше количества уже пройденных фильмов.
+     * </p>
+     *
+     * @param pageable объект Pageable для настройки пагинации
+     * @return страница с DTO-объектами фильмов и признаком приблизительного общего количества
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public EstimatedPage<MovieDto> getAllPageableEstimated(Pageable pageable) {
+        log.debug("СОБЫТИЕ: Получение списка фильмов с оценкой количества");
+        Slice<MovieDto> slice = movieRepository.findSliceProjectedBy(pageable);
+        long seen = pageable.getOffset() + slice.getNumberOfElements();
+        if (!slice.hasNext()) {
+            return new EstimatedPage<>(slice.getContent(), pageable, seen, false);
+        }
+        long total = Math.max(movieCountEstimator.estimate(), seen + 1);
+        return new EstimatedPage<>(slice.getContent(), pageable, total, true);
+    }
+
+    /**
+     * Получение страницы фильмов, удовлетворяющих условиям фильтрации.
+     * <p>
+     * Фильтрация выполняется в базе данных; условия по жанру, префиксам режиссёра
+     * и названия и диапазону дат релиза обслуживаются индексами таблицы фильмов.
+     * Фильмы выбираются сразу в DTO-объекты, без создания сущностей.
+     * </p>
+     *
+     * @param filter условия фильтрации
+     * @param pageable объект Pageable для настройки пагинации
+     * @return страница с DTO-объектами фильмов
+     * @throws WrongParametersException если нижняя граница даты релиза больше верхней
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Page<MovieDto> getAllFiltered(MovieFilterDto filter, Pageable pageable) {
+        log.debug("СОБЫТИЕ: Получение списка фильмов по фильтру: {}", filter);
+        if (Objects.nonNull(filter.getReleasedFrom()) && Objects.nonNull(filter.getReleasedTo()) &&
+                filter.getReleasedFrom().isAfter(filter.getReleasedTo())) {
+            log.debug("ОШИБКА: Некорректный диапазон дат релиза");
+            throw new WrongParametersException("Нижняя граница даты релиза больше верхней");
+        }
+        return movieRepository.findAllProjected(MovieSpecifications.byFilter(filter), pageable);
+    }
+
+    /**
+     * Получение среза фильмов с keyset-пагинацией.
+     * <p>
+     * Вместо OFFSET используется условие по ключу сортировки и id последнего фильма
+     * предыдущего среза, а общее количество фильмов не подсчитывается. Фильмы выбираются сразу
+     * в DTO-объекты, без создания сущностей.
+     * </p>
+     *
+     * @param after курсор, полученный в предыдущем срезе; пустая строка для первого среза
+     * @param sort поле сортировки для первого среза (id, title, releaseDate)
+     * @param size размер среза
+     * @return срез с DTO-объектами фильмов и курсором следующего среза
+     * @throws WrongParametersException если курсор, поле сортировки или размер среза некорректны
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public MovieSliceDto getAllAfter(String after, String sort, int size) {
+        log.debug("СОБЫТИЕ: Получение среза фильмов после курсора: {}", after);
+        if (size < 1 || size > MAX_SLICE_SIZE) {
+            log.debug("ОШИБКА: Некорректный размер среза: {}", size);
+            throw new WrongParametersException("Размер среза должен быть от 1 до " + MAX_SLICE_SIZE);
+        }
+        MovieCursor cursor = after.isEmpty()
+                ? MovieCursor.first(MovieCursor.SortField.fromParameter(sort))
+                : MovieCursor.decode(after);
+
+        return movieJdbcRepository.findSliceAfter(cursor, size);
+    }
+
+    /**
+     * Получение страницы фильмов, если каталог изменился.
+     * <p>
+     * Версия каталога читается до выборки фильмов в той же транзакции только для чтения, то есть на том же
+     * соединении и при чтении с реплик на той же реплике. Поэтому ETag, построенный по версии, никогда
+     * не бывает новее страницы, даже если реплика отстаёт от основной базы данных. Если каталог не изменился,
+     * фильмы не читаются.
+     * </p>
+     *
+     * @param filter условия фильтрации
+     * @param pageable объект Pageable для настройки пагинации
+     * @param estimateCount оценивать общее количество фильмов вместо точного подсчёта (только без фильтрации)
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @return страница с DTO-объектами фильмов или {@code null}, если каталог не изменился
+     * @throws WrongParametersException если нижняя граница даты релиза больше верхней
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Page<MovieDto> getPageIfModified(MovieFilterDto filter, Pageable pageable, boolean estimateCount,
+                                            Predicate<CatalogVersionDto> isNotModified) {
+        if (isNotModified.test(movieJdbcRepository.findCatalogVersion())) {
+            return null;
+        }
+        if (!filter.isEmpty()) {
+            return getAllFiltered(filter, pageable);
+        }
+        return estimateCount ? getAllPageableEstimated(pageable) : getAllPageable(pageable);
+    }
+
+    /**
+     * Получение среза фильмов с keyset-пагинацией, если каталог изменился.
+     * <p>
+     * Версия каталога читается в той же транзакции, что и срез, как в
+     * {@link #getPageIfModified(MovieFilterDto, Pageable, boolean, Predicate)}.
+     * </p>
+     *
+     * @param after курсор, полученный в предыдущем срезе; пустая строка для первого среза
+     * @param sort поле сортировки для первого среза (id, title, releaseDate)
+     * @param size размер среза
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @return срез с DTO-объектами фильмов и курсором следующего среза или {@code null}, если каталог не изменился
+     * @throws WrongParametersException если курсор, поле сортировки или размер среза некорректны
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public MovieSliceDto getAllAfterIfModified(String after, String sort, int size,
+                                               Predicate<CatalogVersionDto> isNotModified) {
+        if (isNotModified.test(movieJdbcRepository.findCatalogVersion())) {
+            return null;
+        }
+        return getAllAfter(after, sort, size);
+    }
+
+    /**
+     * Потоковое получение фильмов одной страницы.
+     * <p>
+     * Фильмы страницы читаются серверным курсором и передаются обработчику по одному, без построения
+     * {@link Page} и без подсчёта общего количества фильмов. Сортировка возможна по полям
+     * id, title, director, releaseDate, genre, version и updatedAt.
+     * </p>
+     *
+     * @param pageable параметры пагинации
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     * @throws WrongParametersException если задана сортировка по неподдерживаемому полю
+     */
+    @Override
+    public void streamPage(Pageable pageable, Consumer<MovieDto> consumer) {
+        log.debug("СОБЫТИЕ: Потоковое получение страницы фильмов: {}", pageable);
+        if (!MovieJdbcRepository.isSortable(pageable.getSort())) {
+            log.debug("ОШИБКА: Некорректная сортировка: {}", pageable.getSort());
+            throw new WrongParametersException("Сортировка возможна только по полям id, title, director, releaseDate, genre, version, updatedAt");
+        }
+        movieJdbcRepository.forEachInPage(pageable, movie -> consumer.accept(movieMapper.toMovieDto(movie)));
+    }
+
+    /**
+     * Потоковое получение фильмов одной страницы, если каталог изменился.
+     * <p>
+     * Версия каталога читается в той же транзакции, что и фильмы страницы, как в
+     * {@link #getPageIfModified(MovieFilterDto, Pageable, boolean, Predicate)}.
+     * </p>
+     *
+     * @param pageable параметры пагинации
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     * @return {@code false}, если каталог не изменился и фильмы не читались
+     * @throws WrongParametersException если задана сортировка по неподдерживаемому полю
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public boolean streamPageIfModified(Pageable pageable, Predicate<CatalogVersionDto> isNotModified,
+                                        Consumer<MovieDto> consumer) {
+        if (isNotModified.test(movieJdbcRepository.findCatalogVersion())) {
+            return false;
+        }
+        streamPage(pageable, consumer);
+        return true;
+    }
+
+    /**
+     * Потоковое получение фильмов одной страницы с подсчётом общего количества фильмов, если каталог изменился.
+     * <p>
+     * Версия каталога читается в той же транзакции, что и фильмы страницы, как в
+     * {@link #getPageIfModified(MovieFilterDto, Pageable, boolean, Predicate)}.
+     * Фильмы страницы передаются обработчику так же, как в {@link #streamPage(Pageable, Consumer)}.
+     * Общее количество подсчитывается в той же транзакции после выборки страницы и, как для
+     * {@link #getAllPageable(Pageable)}, без запроса {@code count(*)}, если по неполной странице
+     * оно уже известно.
+     * </p>
+     *
+     * @param pageable параметры пагинации
+     * @param isNotModified проверка версии каталога; возвращает {@code true}, если каталог не изменился
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма страницы
+     * @return общее количество фильмов или пустое значение, если каталог не изменился
+     * @throws WrongParametersException если задана сортировка по неподдерживаемому полю
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OptionalLong streamPageCountedIfModified(Pageable pageable, Predicate<CatalogVersionDto> isNotModified,
+                                                    Consumer<MovieDto> consumer) {
+        if (isNotModified.test(movieJdbcRepository.findCatalogVersion())) {
+            return OptionalLong.empty();
+        }
+        long[] size = new long[1];
+        streamPage(pageable, movieDto -> {
+            size[0]++;
+            consumer.accept(movieDto);
+        });
+        if (size[0] < pageable.getPageSize() && (size[0] > 0 || pageable.getOffset() == 0)) {
+            return OptionalLong.of(pageable.getOffset() + size[0]);
+        }
+        return OptionalLong.of(movieJdbcRepository.count());
+    }
+
+    /**
+     * Потоковая выгрузка всех фильмов в порядке возрастания id.
+     * <p>
+     * Фильмы читаются серверным курсором и передаются обработчику по одному,
+     * не накапливаясь в памяти.
+     * </p>
+     *
+     * @param consumer обработчик, вызываемый для DTO-объекта каждого фильма
+     */
+    @Override
+    public void exportAll(Consumer<MovieDto> consumer) {
+        log.debug("СОБЫТИЕ: Выгрузка всех фильмов");
+        movieJdbcRepository.forEach(movie -> consumer.accept(movieMapper.toMovieDto(movie)));
     }
 
     /**
      * Поиск фильма по идентификатору.
+     * <p>
+     * Фильм читается из кэша, а при промахе загружается из базы данных и помещается в кэш.
+     * </p>
      *
      * @param id идентификатор фильма
      * @return DTO-объект фильма
@@ -61,8 +383,83 @@ public class MovieServiceImpl implements MovieService {
      */
     @Override
     public MovieDto findById(Long id) {
+        return findVersionedById(id).getMovie();
+    }
+
+    /**
+     * Поиск фильма вместе с версией его записи по идентификатору.
+     * <p>
+     * Фильм читается из кэша, а при промахе загружается из базы данных и помещается в кэш.
+     * Промахи загружаются JDBC-запросом вне транзакции, то есть с основной базы данных и минуя кэш второго
+     * уровня Hibernate: иначе сразу после изменения в кэш мог бы попасть старый фильм с отстающей реплики.
+     * </p>
+     *
+     * @param id идентификатор фильма
+     * @return DTO-объект фильма с версией и временем последнего изменения
+     * @throws NotFoundAnythingException если фильм с переданным id не найден
+     */
+    @Override
+    public VersionedMovieDto findVersionedById(Long id) {
         log.debug("СОБЫТИЕ: Получение dto-объекта фильма по id: {}", id);
-        return movieMapper.toMovieDto(getById(id));
+        return movieCache.get(id, movieId -> {
+            Movie movie = movieJdbcRepository.findById(movieId).orElseThrow(() -> {
+                log.debug("ОШИБКА: Фильм с введенным id не найден");
+                return new NotFoundAnythingException("Фильм с введенным id не найден");
+            });
+            return new VersionedMovieDto(movieMapper.toMovieDto(movie), movie.getVersion(), movie.getUpdatedAt());
+        });
+    }
+
+    /**
+     * Поиск фильмов по списку идентификаторов.
+     * <p>
+     * Фильмы читаются из кэша, а все промахи загружаются из основной базы данных одним запросом
+     * и помещаются в кэш, как в {@link #findVersionedById(Long)}. Повторяющиеся идентификаторы учитываются один раз.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов
+     * @return найденные фильмы в порядке запроса и отсутствующие идентификаторы
+     * @throws WrongParametersException если список пуст или идентификаторов слишком много
+     */
+    @Override
+    public MovieMultiGetDto findAllById(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        log.debug("СОБЫТИЕ: Получение фильмов по списку идентификаторов: {}", distinctIds.size());
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_GET_IDS) {
+            log.debug("ОШИБКА: Некорректный список идентификаторов для получения");
+            throw new WrongParametersException("Количество идентификаторов должно быть от 1 до " + MAX_GET_IDS);
+        }
+
+        Map<Long, VersionedMovieDto> found = movieCache.getAll(distinctIds, missedIds ->
+                movieJdbcRepository.findAllById(List.copyOf(missedIds)).stream()
+                        .collect(Collectors.toMap(Movie::getId, movie -> new VersionedMovieDto(
+                                movieMapper.toMovieDto(movie), movie.getVersion(), movie.getUpdatedAt()))));
+        Map<Long, MovieDto> movies = new LinkedHashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            VersionedMovieDto movie = found.get(id);
+            if (movie != null) {
+                movies.put(id, movie.getMovie());
+            } else {
+                missing.add(id);
+            }
+        }
+        return new MovieMultiGetDto(movies, missing);
+    }
+
+    /**
+     * Получение текущей версии каталога фильмов.
+     * <p>
+     * Выполняется одним запросом к строкам счётчика версии. Для условных запросов к спискам фильмов
+     * версия читается вместе со списком методами {@code ...IfModified}.
+     * </p>
+     *
+     * @return версия и время последнего изменения каталога
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CatalogVersionDto getCatalogVersion() {
+        return movieJdbcRepository.findCatalogVersion();
     }
 
     /**
@@ -72,29 +469,100 @@ public class MovieServiceImpl implements MovieService {
      * @return объект фильма
      * @throws NotFoundAnythingException если фильм с переданным id не найден
      */
+    @Transactional(readOnly = true)
     @Override
     public Movie getById(Long id) {
         log.debug("СОБЫТИЕ: Получение фильма по id: {}", id);
         return movieRepository.findById(id).orElseThrow(() -> new NotFoundAnythingException("Фильм с введенным id не найден"));
     }
 
+    /**
+     * Полнотекстовый поиск фильмов по названию и режиссёру.
+     * <p>
+     * Идентификаторы фильмов подбираются по индексу в памяти приложения,
+     * после чего фильмы загружаются из базы данных одним запросом.
+     * </p>
+     *
+     * @param query текст запроса
+     * @param limit максимальное количество результатов
+     * @return DTO-объекты найденных фильмов в порядке убывания релевантности
+     * @throws WrongParametersException если запрос пуст или количество результатов некорректно
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<MovieDto> search(String query, int limit) {
+        log.debug("СОБЫТИЕ: Поиск фильмов по запросу: {}", query);
+        if (query.isBlank() || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            log.debug("ОШИБКА: Некорректные параметры поиска");
+            throw new WrongParametersException("Запрос не должен быть пустым, а количество результатов должно быть от 1 до "
+                    + MAX_SEARCH_LIMIT);
+        }
+        long[] ids = movieSearchIndex.search(query, limit);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        Map<Long, Movie> moviesById = movieRepository.findAllById(idList).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return idList.stream()
+                .map(moviesById::get)
+                .filter(Objects::nonNull)
+                .map(movieMapper::toMovieDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Получение сводной статистики каталога фильмов.
+     * <p>
+     * Статистика поддерживается в памяти приложения и не требует обращения к базе данных.
+     * </p>
+     *
+     * @param directorLimit максимальное количество режиссёров в статистике
+     * @return количество фильмов по жанрам, годам релиза и режиссёрам
+     * @throws WrongParametersException если количество режиссёров некорректно
+     */
+    @Override
+    public MovieStatsDto getStats(int directorLimit) {
+        log.debug("СОБЫТИЕ: Получение статистики фильмов");
+        if (directorLimit < 0 || directorLimit > MAX_STATS_DIRECTORS) {
+            log.debug("ОШИБКА: Некорректное количество режиссёров в статистике");
+            throw new WrongParametersException("Количество режиссёров должно быть от 0 до " + MAX_STATS_DIRECTORS);
+        }
+        return movieStats.snapshot(directorLimit);
+    }
+
     /**
      * Создание нового фильма.
+     * <p>
+     * Фильм сохраняется в собственной транзакции репозитория. Если включено объединение
+     * созданий ({@link MovieCreateCoalescer}), фильм вставляется в общем пакете вместе
+     * с одновременно создаваемыми фильмами, поэтому метод не открывает транзакцию сам:
+     * ожидание пакета не должно занимать соединение.
+     * </p>
      *
      * @param movieDto DTO-объект фильма для создания
      * @return DTO-объект созданного фильма
      * @throws WrongParametersException если параметры фильма некорректны
      * @throws SaveException если произошла ошибка при сохранении фильма
      */
-    @Transactional
     @Override
     public MovieDto create(MovieDto movieDto) {
-        validateMovieDto(movieDto);
+        MovieValidator.validate(movieDto);
         Movie movie = movieMapper.toMovie(movieDto);
         log.debug("СОБЫТИЕ: Добавляем новый фильм: {}", movieDto);
         try {
-            movie = movieRepository.save(movie);
-            return movieMapper.toMovieDto(movie);
+            Movie created = movieCreateCoalescer.isEnabled()
+                    ? movieCreateCoalescer.insert(movie)
+                    : movieRepository.save(movie);
+            TransactionUtils.afterCommit(() -> {
+                movieSearchIndex.index(created);
+                movieStats.add(created);
+                movieInvalidationBus.publishCreated(created);
+            });
+            return movieMapper.toMovieDto(created);
         } catch (Exception e) {
             log.debug("ОШИБКА: Не удалось создать фильм");
             throw new SaveException("Не удалось создать фильм");
@@ -102,63 +570,167 @@ public class MovieServiceImpl implements MovieService {
     }
 
     /**
-     * Проверка валидности полей DTO-объекта фильма. Вспомогательный метод.
+     * Пакетное создание фильмов.
+     * <p>
+     * Каждый элемент проверяется по тем же правилам, что и при создании одного фильма.
+     * Корректные фильмы вставляются JDBC-пакетами, каждый пакет в отдельной транзакции.
+     * Если пакет не удалось вставить, его фильмы вставляются по одному, чтобы ошибка
+     * была отнесена к конкретному элементу и не отменяла создание остальных.
+     * </p>
+     *
+     * @param movieDtos список DTO-объектов фильмов для создания
+     * @return количество созданных фильмов и ошибки по отдельным элементам
+     */
+    @Override
+    public MovieBatchResultDto createAll(List<MovieDto> movieDtos) {
+        log.debug("СОБЫТИЕ: Пакетное добавление фильмов, количество: {}", movieDtos.size());
+        int batchSize = movieJdbcRepository.getBatchSize();
+        List<MovieBatchErrorDto> errors = new ArrayList<>();
+        List<Movie> created = new ArrayList<>(movieDtos.size());
+        List<Movie> batch = new ArrayList<>(batchSize);
+        List<Integer> batchIndexes = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < movieDtos.size(); i++) {
+            MovieDto movieDto = movieDtos.get(i);
+            try {
+                MovieValidator.validate(movieDto);
+            } catch (WrongParametersException e) {
+                errors.add(new MovieBatchErrorDto(i, e.getMessage()));
+                continue;
+            }
+            batch.add(movieMapper.toMovie(movieDto));
+            batchIndexes.add(i);
+            if (batch.size() == batchSize) {
+                created.addAll(insertBatch(batch, batchIndexes, errors));
+                batch = new ArrayList<>(batchSize);
+                batchIndexes = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            created.addAll(insertBatch(batch, batchIndexes, errors));
+        }
+
+        created.forEach(movie -> {
+            movieSearchIndex.index(movie);
+            movieStats.add(movie);
+            movieInvalidationBus.publishCreated(movie);
+        });
+        errors.sort(Comparator.comparingInt(MovieBatchErrorDto::getIndex));
+        log.debug("Добавлено фильмов: {}, ошибок: {}", created.size(), errors.size());
+        return new MovieBatchResultDto(created.size(), errors);
+    }
+
+    /**
+     * Вставка одного пакета фильмов. Вспомогательный метод.
+     * <p>
+     * При ошибке пакет вставляется по одному фильму, а ошибки записываются
+     * с порядковыми номерами элементов исходного списка.
+     * </p>
      *
-     * @param movieDto DTO-объект фильма для проверки
-     * @throws WrongParametersException если одно или несколько полей не заполнены
+     * @param batch фильмы пакета
+     * @param batchIndexes порядковые номера фильмов пакета в исходном списке
+     * @param errors список, в который добавляются ошибки
+     * @return успешно созданные фильмы
      */
-    private void validateMovieDto(MovieDto movieDto) {
-        if (Objects.isNull(movieDto.getTitle()) || Objects.isNull(movieDto.getDirector()) ||
-                Objects.isNull(movieDto.getReleaseDate()) || Objects.isNull(movieDto.getGenre()) ||
-                movieDto.getTitle().isEmpty() || movieDto.getDirector().isEmpty()) {
-            log.debug("ОШИБКА: Одно или часть полей не заполнены");
-            throw new WrongParametersException("Неправильно заполнены поля создаваемого фильма");
+    private List<Movie> insertBatch(List<Movie> batch, List<Integer> batchIndexes, List<MovieBatchErrorDto> errors) {
+        try {
+            return movieJdbcRepository.insertAll(batch);
+        } catch (Exception e) {
+            log.debug("ОШИБКА: Не удалось создать пакет фильмов, добавляем по одному");
+        }
+        List<Movie> created = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                created.addAll(movieJdbcRepository.insertAll(List.of(batch.get(i))));
+            } catch (Exception e) {
+                log.debug("ОШИБКА: Не удалось создать фильм");
+                errors.add(new MovieBatchErrorDto(batchIndexes.get(i), "Не удалось создать фильм"));
+            }
         }
+        return created;
     }
 
     /**
      * Обновление информации о фильме.
+     * <p>
+     * Обновляются только поля, переданные в DTO-объекте. Изменение выполняется одним
+     * запросом {@code UPDATE ... RETURNING} без предварительного чтения фильма.
+     * </p>
      *
      * @param id идентификатор фильма
      * @param movieDto передаваемый DTO-объект с обновлённой информацией
      * @return DTO-объект обновлённого фильма
      * @throws NotFoundAnythingException если фильм с переданным id не найден
      */
-    @Transactional
     @Override
     public MovieDto update(Long id, MovieDto movieDto) {
-        Movie movie;
-        try {
-            movie = getById(id);
-        } catch (Exception e) {
+        MovieChangeDto change = movieJdbcRepository.update(id, movieMapper.toMovie(movieDto)).orElseThrow(() -> {
             log.debug("ОШИБКА: Фильм с введенным id не найден");
-            throw new NotFoundAnythingException("Фильм с введенным id не найден");
-        }
-
-        Optional.ofNullable(movieDto.getTitle()).ifPresent(movie::setTitle);
-        Optional.ofNullable(movieDto.getDirector()).ifPresent(movie::setDirector);
-        Optional.ofNullable(movieDto.getReleaseDate()).ifPresent(movie::setReleaseDate);
-        Optional.ofNullable(movieDto.getGenre()).ifPresent(movie::setGenre);
+            return new NotFoundAnythingException("Фильм с введенным id не найден");
+        });
 
-        log.debug("Обновлен фильм: {}", movie);
-        return movieMapper.toMovieDto(movieRepository.save(movie));
+        Movie updated = change.getUpdated();
+        log.debug("Обновлен фильм: {}", updated);
+        movieCache.evict(id, updated.getVersion());
+        TransactionUtils.afterCommit(() -> {
+            movieSearchIndex.index(updated);
+            movieStats.replace(change.getPrevious(), updated);
+            movieInvalidationBus.publishUpdated(change.getPrevious(), updated);
+        });
+        return movieMapper.toMovieDto(updated);
     }
 
     /**
      * Удаление фильма по идентификатору.
+     * <p>
+     * Фильм удаляется одним запросом без предварительной проверки существования;
+     * удалённая строка возвращается через {@code RETURNING} для обновления статистики.
+     * </p>
      *
      * @param id идентификатор фильма
      * @throws NotFoundAnythingException если фильм с переданным id не найден
      */
-    @Transactional
     @Override
     public void deleteById(Long id) {
-        if (movieRepository.existsById(id)) {
-            log.debug("Удалён фильм с id: {}", id);
-            movieRepository.deleteById(id);
-        } else {
+        Movie deleted = movieJdbcRepository.deleteById(id).orElseThrow(() -> {
             log.debug("ОШИБКА: Фильм с введенным id не найден");
-            throw new NotFoundAnythingException("Фильм с введенным id не найден");
+            return new NotFoundAnythingException("Фильм с введенным id не найден");
+        });
+        log.debug("Удалён фильм с id: {}", id);
+        movieCache.evict(id, deleted.getVersion() + 1);
+        TransactionUtils.afterCommit(() -> {
+            movieSearchIndex.remove(id);
+            movieStats.remove(deleted);
+            movieInvalidationBus.publishDeleted(deleted);
+        });
+    }
+
+    /**
+     * Удаление фильмов по списку идентификаторов.
+     * <p>
+     * Все фильмы удаляются одним запросом. Отсутствующие идентификаторы пропускаются.
+     * </p>
+     *
+     * @param ids идентификаторы фильмов
+     * @return количество удалённых фильмов
+     * @throws WrongParametersException если список пуст или превышает допустимый размер
+     */
+    @Override
+    public int deleteAllById(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_DELETE_IDS) {
+            log.debug("ОШИБКА: Некорректный список идентификаторов для удаления");
+            throw new WrongParametersException("Количество идентификаторов должно быть от 1 до " + MAX_DELETE_IDS);
         }
+
+        List<Movie> deleted = movieJdbcRepository.deleteAllById(distinctIds);
+        log.debug("Удалено фильмов: {} из {}", deleted.size(), distinctIds.size());
+        deleted.forEach(movie -> movieCache.evict(movie.getId(), movie.getVersion() + 1));
+        TransactionUtils.afterCommit(() -> deleted.forEach(movie -> {
+            movieSearchIndex.remove(movie.getId());
+            movieStats.remove(movie);
+            movieInvalidationBus.publishDeleted(movie);
+        }));
+        return deleted.size();
     }
 }
@@ -0,0 +1,36 @@
+package com.example.sbertestmovie.service;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.exception.WrongParametersException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Objects;
+
+/**
+ * Правила проверки DTO-объектов фильмов.
+ * <p>
+ * Общие для блокирующего ({@link MovieServiceImpl}) и реактивного
+ * ({@link ReactiveMovieServiceImpl}) сервисов.
+ * </p>
+ */
+@Slf4j
+public final class MovieValidator {
+
+    private MovieValidator() {
+    }
+
+    /**
+     * Проверка валидности полей DTO-объекта создаваемого фильма.
+     *
+     * @param movieDto DTO-объект фильма для проверки
+     * @throws WrongParametersException если объект не передан или одно или несколько полей не заполнены
+     */
+    public static void validate(MovieDto movieDto) {
+        if (Objects.isNull(movieDto) || Objects.isNull(movieDto.getTitle()) || Objects.isNull(movieDto.getDirector()) ||
+                Objects.isNull(movieDto.getReleaseDate()) || Objects.isNull(movieDto.getGenre()) ||
+                movieDto.getTitle().isEmpty() || movieDto.getDirector().isEmpty()) {
+            log.debug("ОШИБКА: Одно или часть полей не заполнены");
+            throw new WrongParametersException("Неправильно заполнены поля создаваемого фильма");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.sbertestmovie.service;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Интерфейс реактивного сервиса для работы с фильмами.
+ * Определяет неблокирующие аналоги операций {@link MovieService}.
+ */
+public interface ReactiveMovieService {
+
+    /**
+     * Получение страницы фильмов.
+     *
+     * @param page номер страницы (начиная с нуля)
+     * @param size размер страницы
+     * @return поток DTO-объектов фильмов
+     */
+    Flux<MovieDto> getAll(int page, int size);
+
+    /**
+     * Потоковая выгрузка всех фильмов.
+     *
+     * @return поток DTO-объектов всех фильмов
+     */
+    Flux<MovieDto> exportAll();
+
+    /**
+     * Поиск фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return DTO-объект фильма
+     */
+    Mono<MovieDto> findById(Long id);
+
+    /**
+     * Создание нового фильма.
+     *
+     * @param movieDto DTO-объект фильма для создания
+     * @return DTO-объект созданного фильма
+     */
+    Mono<MovieDto> create(MovieDto movieDto);
+
+    /**
+     * Обновление информации о фильме.
+     *
+     * @param id идентификатор фильма
+     * @param movieDto DTO-объект с обновлённой информацией
+     * @return DTO-объект обновлённого фильма
+     */
+    Mono<MovieDto> update(Long id, MovieDto movieDto);
+
+    /**
+     * Удаление фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return сигнал завершения удаления
+     */
+    Mono<Void> deleteById(Long id);
+}
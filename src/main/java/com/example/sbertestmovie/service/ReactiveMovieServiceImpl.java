@@ -0,0 +1,151 @@
+package com.example.sbertestmovie.service;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieMapper;
+import com.example.sbertestmovie.exception.NotFoundAnythingException;
+import com.example.sbertestmovie.exception.SaveException;
+import com.example.sbertestmovie.exception.WrongParametersException;
+import com.example.sbertestmovie.repository.MovieReactiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Реализация реактивного сервиса для работы с фильмами поверх R2DBC.
+ * <p>
+ * Используется в профиле {@code reactive}. Применяет тот же {@link MovieMapper}
+ * и те же правила проверки ({@link MovieValidator}), что и {@link MovieServiceImpl}.
+ * </p>
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveMovieServiceImpl implements ReactiveMovieService {
+
+    /**
+     * Максимальный размер страницы.
+     */
+    private static final int MAX_PAGE_SIZE = 2000;
+
+    private final MovieReactiveRepository movieReactiveRepository;
+    private final MovieMapper movieMapper;
+
+    /**
+     * Конструктор для инициализации ReactiveMovieServiceImpl.
+     *
+     * @param movieReactiveRepository реактивный репозиторий фильмов
+     * @param movieMapper маппер для преобразования entity-объектов в dto-объекты и обратно
+     */
+    @Autowired
+    public ReactiveMovieServiceImpl(MovieReactiveRepository movieReactiveRepository, MovieMapper movieMapper) {
+        this.movieReactiveRepository = movieReactiveRepository;
+        this.movieMapper = movieMapper;
+    }
+
+    /**
+     * Получение страницы фильмов в порядке возрастания id.
+     *
+     * @param page номер страницы (начиная с нуля)
+     * @param size размер страницы
+     * @return поток DTO-объектов фильмов
+     * @throws WrongParametersException если номер или размер страницы некорректны
+     */
+    @Override
+    public Flux<MovieDto> getAll(int page, int size) {
+        log.debug("СОБЫТИЕ: Получение списка фильмов");
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            return Flux.error(new WrongParametersException("Некорректные параметры страницы"));
+        }
+        return movieReactiveRepository.findAll(size, (long) page * size).map(movieMapper::toMovieDto);
+    }
+
+    /**
+     * Потоковая выгрузка всех фильмов в порядке возрастания id.
+     *
+     * @return поток DTO-объектов всех фильмов
+     */
+    @Override
+    public Flux<MovieDto> exportAll() {
+        log.debug("СОБЫТИЕ: Выгрузка всех фильмов");
+        return movieReactiveRepository.findAll().map(movieMapper::toMovieDto);
+    }
+
+    /**
+     * Поиск фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return DTO-объект фильма
+     * @throws NotFoundAnythingException если фильм с переданным id не найден
+     */
+    @Override
+    public Mono<MovieDto> findById(Long id) {
+        log.debug("СОБЫТИЕ: Получение dto-объекта фильма по id: {}", id);
+        return movieReactiveRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundAnythingException("Фильм с введенным id не найден")))
+                .map(movieMapper::toMovieDto);
+    }
+
+    /**
+     * Создание нового фильма.
+     *
+     * @param movieDto DTO-объект фильма для создания
+     * @return DTO-объект созданного фильма
+     * @throws WrongParametersException если параметры фильма некорректны
+     * @throws SaveException если произошла ошибка при сохранении фильма
+     */
+    @Override
+    public Mono<MovieDto> create(MovieDto movieDto) {
+        return Mono.defer(() -> {
+                    MovieValidator.validate(movieDto);
+                    log.debug("СОБЫТИЕ: Добавляем новый фильм: {}", movieDto);
+                    return movieReactiveRepository.insert(movieMapper.toMovie(movieDto))
+                            .onErrorMap(e -> {
+                                log.debug("ОШИБКА: Не удалось создать фильм");
+                                return new SaveException("Не удалось создать фильм");
+                            });
+                })
+                .map(movieMapper::toMovieDto);
+    }
+
+    /**
+     * Обновление информации о фильме одним запросом.
+     *
+     * @param id идентификатор фильма
+     * @param movieDto передаваемый DTO-объект с обновлённой информацией
+     * @return DTO-объект обновлённого фильма
+     * @throws NotFoundAnythingException если фильм с переданным id не найден
+     */
+    @Override
+    public Mono<MovieDto> update(Long id, MovieDto movieDto) {
+        return Mono.defer(() -> movieReactiveRepository.update(id, movieMapper.toMovie(movieDto)))
+                .switchIfEmpty(Mono.error(() -> {
+                    log.debug("ОШИБКА: Фильм с введенным id не найден");
+                    return new NotFoundAnythingException("Фильм с введенным id не найден");
+                }))
+                .doOnNext(movie -> log.debug("Обновлен фильм: {}", movie))
+                .map(movieMapper::toMovieDto);
+    }
+
+    /**
+     * Удаление фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return сигнал завершения удаления
+     * @throws NotFoundAnythingException если фильм с переданным id не найден
+     */
+    @Override
+    public Mono<Void> deleteById(Long id) {
+        return movieReactiveRepository.deleteById(id)
+                .flatMap(deleted -> {
+                    if (deleted == 0) {
+                        log.debug("ОШИБКА: Фильм с введенным id не найден");
+                        return Mono.error(new NotFoundAnythingException("Фильм с введенным id не найден"));
+                    }
+                    log.debug("Удалён фильм с id: {}", id);
+                    return Mono.empty();
+                });
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.sbertestmovie.stats;
+
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Оценка общего количества фильмов без запроса {@code count(*)} на каждую страницу.
+ * <p>
+ * Базовое значение периодически читается из {@code pg_class.reltuples}, а изменения после чтения
+ * учитываются по {@link MovieStats}, в которую попадают изменения и этого, и других экземпляров приложения.
+ * Если оценки PostgreSQL нет (таблица ещё не анализировалась или используется другая база данных),
+ * базовое значение получается точным подсчётом.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieCountEstimator {
+
+    private final MovieJdbcRepository movieJdbcRepository;
+    private final MovieStats movieStats;
+
+    private volatile Snapshot snapshot = new Snapshot(0, 0);
+
+    /**
+     * Конструктор для инициализации MovieCountEstimator.
+     *
+     * @param movieJdbcRepository репозиторий фильмов для чтения оценки количества
+     * @param movieStats статистика, по которой учитываются изменения после чтения базового значения
+     */
+    @Autowired
+    public MovieCountEstimator(MovieJdbcRepository movieJdbcRepository, MovieStats movieStats) {
+        this.movieJdbcRepository = movieJdbcRepository;
+        this.movieStats = movieStats;
+    }
+
+    /**
+     * Получение оценки количества фильмов.
+     *
+     * @return оценка количества фильмов
+     */
+    public long estimate() {
+        Snapshot current = snapshot;
+        return Math.max(0, current.count + movieStats.total() - current.localTotal);
+    }
+
+    /**
+     * Обновление базового значения оценки.
+     * <p>
+     * Выполняется после запуска приложения ({@link MovieStats} к этому моменту уже заполнена) и затем
+     * с интервалом {@code movies.count.refresh-interval}.
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${movies.count.refresh-interval:PT5M}",
+            initialDelayString = "${movies.count.refresh-interval:PT5M}")
+    public void refresh() {
+        long localTotal = movieStats.total();
+        long count;
+        try {
+            count = movieJdbcRepository.estimateCount();
+        } catch (DataAccessException e) {
+            log.debug("ОШИБКА: Оценка количества фильмов недоступна");
+            count = -1;
+        }
+        if (count < 0) {
+            count = movieJdbcRepository.count();
+        }
+        snapshot = new Snapshot(count, localTotal);
+        log.debug("СОБЫТИЕ: Оценка количества фильмов обновлена: {}", count);
+    }
+
+    /**
+     * Базовое значение оценки и количество фильмов по {@link MovieStats} на момент его чтения.
+     */
+    private static final class Snapshot {
+        private final long count;
+        private final long localTotal;
+
+        private Snapshot(long count, long localTotal) {
+            this.count = count;
+            this.localTotal = localTotal;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.sbertestmovie.stats;
+
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сводная статистика каталога фильмов, поддерживаемая в памяти приложения.
+ * <p>
+ * Хранит общее количество фильмов и количество по жанрам в счётчиках {@link LongAdder}, а количество
+ * по годам релиза и режиссёрам — в картах, которые изменяются атомарно для каждого ключа; группа,
+ * количество фильмов в которой стало нулевым, удаляется из карты. Заполняется одним групповым запросом
+ * при запуске приложения ({@link MovieStatsLoader}), а затем изменяется инкрементально из сервисного слоя,
+ * поэтому чтение статистики не обращается к базе данных.
+ * </p>
+ * <p>
+ * Режиссёры с фильмами дополнительно хранятся в упорядоченном по количеству фильмов множестве,
+ * которое обновляется вместе со счётчиком режиссёра. Поэтому снимок читает только первые
+ * {@code directorLimit} режиссёров, а не перебирает всех.
+ * </p>
+ * <p>
+ * Счётчики изменяются независимо друг от друга, поэтому снимок, сделанный во время записи,
+ * может на короткое время расходиться между разрезами на одно изменение.
+ * </p>
+ */
+@Component
+public class MovieStats {
+
+    private static final Comparator<Map.Entry<String, Long>> DIRECTOR_ORDER =
+            Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final LongAdder total = new LongAdder();
+    private final Map<Genre, LongAdder> byGenre = new EnumMap<>(Genre.class);
+    private final Map<Integer, Long> byYear = new ConcurrentHashMap<>();
+    private final Map<String, Long> byDirector = new ConcurrentHashMap<>();
+    private final NavigableSet<Map.Entry<String, Long>> topDirectors = new ConcurrentSkipListSet<>(DIRECTOR_ORDER);
+
+    /**
+     * Конструктор для инициализации статистики.
+     * <p>
+     * Счётчики всех жанров создаются заранее, после чего структура карты жанров не меняется
+     * и её можно читать из нескольких потоков без синхронизации.
+     * </p>
+     */
+    public MovieStats() {
+        for (Genre genre : Genre.values()) {
+            byGenre.put(genre, new LongAdder());
+        }
+    }
+
+    /**
+     * Учёт группы фильмов с одинаковыми жанром, годом релиза и режиссёром.
+     *
+     * @param genre жанр
+     * @param year год релиза
+     * @param director режиссёр
+     * @param count количество фильмов (отрицательное — для удаления)
+     */
+    public void add(Genre genre, int year, String director, long count) {
+        total.add(count);
+        byGenre.get(genre).add(count);
+        addYear(year, count);
+        addDirector(director, count);
+    }
+
+    /**
+     * Учёт созданного фильма.
+     *
+     * @param movie созданный фильм
+     */
+    public void add(Movie movie) {
+        add(movie.getGenre(), movie.getReleaseDate().getYear(), movie.getDirector(), 1);
+    }
+
+    /**
+     * Учёт удалённого фильма.
+     *
+     * @param movie удалённый фильм
+     */
+    public void remove(Movie movie) {
+        add(movie.getGenre(), movie.getReleaseDate().getYear(), movie.getDirector(), -1);
+    }
+
+    /**
+     * Учёт изменения фильма.
+     * <p>
+     * Счётчики меняются, только если изменились жанр, год релиза или режиссёр.
+     * </p>
+     *
+     * @param previous фильм до изменения
+     * @param updated фильм после изменения
+     */
+    public void replace(Movie previous, Movie updated) {
+        if (previous.getGenre() != updated.getGenre()) {
+            byGenre.get(previous.getGenre()).decrement();
+            byGenre.get(updated.getGenre()).increment();
+        }
+        int previousYear = previous.getReleaseDate().getYear();
+        int updatedYear = updated.getReleaseDate().getYear();
+        if (previousYear != updatedYear) {
+            addYear(previousYear, -1);
+            addYear(updatedYear, 1);
+        }
+        if (!Objects.equals(previous.getDirector(), updated.getDirector())) {
+            addDirector(previous.getDirector(), -1);
+            addDirector(updated.getDirector(), 1);
+        }
+    }
+
+    /**
+     * Изменение количества фильмов года релиза. Вспомогательный метод.
+     * <p>
+     * Год, количество фильмов которого стало нулевым, удаляется из карты.
+     * </p>
+     *
+     * @param year год релиза
+     * @param count изменение количества фильмов
+     */
+    private void addYear(int year, long count) {
+        byYear.merge(year, count, (current, delta) -> current + delta == 0 ? null : current + delta);
+    }
+
+    /**
+     * Изменение количества фильмов режиссёра. Вспомогательный метод.
+     * <p>
+     * Счётчик режиссёра и его место в упорядоченном множестве меняются внутри {@link Map#compute},
+     * то есть атомарно относительно других изменений того же режиссёра. Режиссёр, количество фильмов
+     * которого стало нулевым, удаляется из карты; в упорядоченное множество попадают только режиссёры
+     * с положительным количеством фильмов.
+     * </p>
+     *
+     * @param director режиссёр
+     * @param count изменение количества фильмов
+     */
+    private void addDirector(String director, long count) {
+        byDirector.compute(director, (key, current) -> {
+            long previous = current == null ? 0 : current;
+            long updated = previous + count;
+            if (previous > 0) {
+                topDirectors.remove(Map.entry(key, previous));
+            }
+            if (updated > 0) {
+                topDirectors.add(Map.entry(key, updated));
+            }
+            return updated == 0 ? null : updated;
+        });
+    }
+
+    /**
+     * Получение общего количества фильмов.
+     *
+     * @return количество фильмов
+     */
+    public long total() {
+        return total.sum();
+    }
+
+    /**
+     * Сброс всех счётчиков.
+     */
+    public void clear() {
+        total.reset();
+        byGenre.values().forEach(LongAdder::reset);
+        byYear.clear();
+        for (String director : byDirector.keySet()) {
+            byDirector.computeIfPresent(director, (key, count) -> {
+                topDirectors.remove(Map.entry(key, count));
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Получение снимка статистики.
+     * <p>
+     * Жанры перечисляются все, годы — в порядке возрастания, режиссёры — в порядке убывания
+     * количества фильмов, а при равенстве — по имени (не более {@code directorLimit}).
+     * Пустые группы не включаются. Режиссёры читаются из начала упорядоченного множества,
+     * поэтому стоимость снимка не зависит от общего количества режиссёров.
+     * </p>
+     *
+     * @param directorLimit максимальное количество режиссёров в снимке
+     * @return снимок статистики
+     */
+    public MovieStatsDto snapshot(int directorLimit) {
+        Map<Genre, Long> genres = new EnumMap<>(Genre.class);
+        byGenre.forEach((genre, count) -> genres.put(genre, count.sum()));
+
+        Map<Integer, Long> years = new TreeMap<>();
+        byYear.forEach((year, count) -> {
+            if (count > 0) {
+                years.put(year, count);
+            }
+        });
+
+        Map<String, Long> directors = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, Long>> top = topDirectors.iterator();
+        while (directors.size() < directorLimit && top.hasNext()) {
+            Map.Entry<String, Long> entry = top.next();
+            // Во время изменения режиссёра обход может встретить его прежнее и новое количество
+            directors.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+
+        return new MovieStatsDto(total.sum(), genres, years, directors);
+    }
+}
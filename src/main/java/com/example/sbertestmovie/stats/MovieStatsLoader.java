@@ -0,0 +1,60 @@
+package com.example.sbertestmovie.stats;
+
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Компонент, заполняющий {@link MovieStats} при запуске приложения.
+ * <p>
+ * Все разрезы статистики строятся по одному запросу с группировкой по жанру,
+ * году релиза и режиссёру. Дальнейшие изменения попадают в статистику из сервисного слоя,
+ * а изменения других экземпляров приложения — через {@link com.example.sbertestmovie.cache.MovieInvalidationBus},
+ * которая после потери уведомлений строит статистику заново ({@link #load()}); изменения, сделанные во время
+ * такого построения, могут быть учтены неточно до следующего построения.
+ * </p>
+ * <p>
+ * Статистика строится после создания всех компонентов, но до запуска веб-сервера: пока выполняется
+ * групповой запрос, изменения ещё не принимаются, поэтому ни одно из них не учитывается дважды
+ * и не теряется. Обработчики запуска, которые опираются на статистику, получают её уже заполненной.
+ * </p>
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class MovieStatsLoader implements SmartInitializingSingleton {
+
+    private final MovieJdbcRepository movieJdbcRepository;
+    private final MovieStats movieStats;
+
+    /**
+     * Конструктор для инициализации MovieStatsLoader.
+     *
+     * @param movieJdbcRepository репозиторий фильмов для группового запроса
+     * @param movieStats заполняемая статистика
+     */
+    @Autowired
+    public MovieStatsLoader(MovieJdbcRepository movieJdbcRepository, MovieStats movieStats) {
+        this.movieJdbcRepository = movieJdbcRepository;
+        this.movieStats = movieStats;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    /**
+     * Заполнение статистики по данным из базы данных.
+     */
+    public void load() {
+        log.info("СОБЫТИЕ: Построение статистики фильмов");
+        long start = System.currentTimeMillis();
+        movieStats.clear();
+        movieJdbcRepository.forEachGroupCount(movieStats::add);
+        log.info("Статистика фильмов построена за {} мс", System.currentTimeMillis() - start);
+    }
+}
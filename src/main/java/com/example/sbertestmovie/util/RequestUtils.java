@@ -0,0 +1,49 @@
+package com.example.sbertestmovie.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+import java.util.Set;
+
+/**
+ * Вспомогательные методы для классификации HTTP-запросов к API фильмов.
+ */
+public final class RequestUtils {
+
+    /**
+     * Пути запросов {@code POST}, которые только читают фильмы: тело запроса используется вместо
+     * слишком длинных параметров адреса.
+     */
+    private static final Set<String> READ_ONLY_POST_PATHS = Set.of("/movies/by-ids");
+
+    private RequestUtils() {
+    }
+
+    /**
+     * Получение пути запроса без контекста приложения.
+     *
+     * @param request текущий запрос
+     * @return путь запроса, например {@code /movies/1}
+     */
+    public static String getPath(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Проверка, что запрос только читает данные.
+     * <p>
+     * Чтениями считаются запросы {@code GET} и {@code HEAD}, а также запросы {@code POST}
+     * к маршрутам чтения, например {@code POST /movies/by-ids}.
+     * </p>
+     *
+     * @param request текущий запрос
+     * @return {@code true}, если запрос не изменяет данные
+     */
+    public static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return true;
+        }
+        return HttpMethod.POST.matches(method) && READ_ONLY_POST_PATHS.contains(getPath(request));
+    }
+}
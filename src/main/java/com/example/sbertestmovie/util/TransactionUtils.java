@@ -0,0 +1,58 @@
+package com.example.sbertestmovie.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вспомогательные методы для работы с транзакциями.
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * Выполнение действия после фиксации текущей транзакции.
+     * <p>
+     * Если метод вызван вне транзакции, действие выполняется сразу.
+     * При откате транзакции действие не выполняется.
+     * </p>
+     *
+     * @param action действие, которое нужно выполнить
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполнение действия после фиксации текущей транзакции и повторно через заданное время.
+     * <p>
+     * Повтор выполняется в отдельном потоке; при нулевой задержке действие выполняется один раз,
+     * как в {@link #afterCommit(Runnable)}.
+     * </p>
+     *
+     * @param action действие, которое нужно выполнить
+     * @param repeatAfter задержка повтора после фиксации транзакции
+     */
+    public static void afterCommit(Runnable action, Duration repeatAfter) {
+        afterCommit(() -> {
+            action.run();
+            if (!repeatAfter.isZero() && !repeatAfter.isNegative()) {
+                CompletableFuture.delayedExecutor(repeatAfter.toMillis(), TimeUnit.MILLISECONDS).execute(action);
+            }
+        });
+    }
+}
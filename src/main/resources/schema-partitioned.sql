@@ -0,0 +1,81 @@
+-- Схема с таблицей movies, секционированной по диапазонам release_date (профиль partitioned).
+-- Применяется к новой базе данных: существующая несекционированная таблица movies этим скриптом не преобразуется.
+-- Первичный ключ секционированной таблицы обязан включать ключ секционирования, поэтому он составной (id, release_date);
+-- уникальность id обеспечивается генерацией значений столбцом IDENTITY.
+-- Исторические даты разбиты по десятилетиям, с 2020 года — по годам. Секции следующих лет создаёт
+-- MoviePartitionMaintainer, а фильмы с датами вне существующих секций попадают в movies_default
+-- и переносятся им в новые секции.
+CREATE TABLE IF NOT EXISTS movies
+(
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    title       VARCHAR(255)                            NOT NULL,
+    director    VARCHAR(255)                            NOT NULL,
+    release_date DATE                                    NOT NULL,
+    genre       VARCHAR(255)                            NOT NULL,
+    version     BIGINT                   DEFAULT 0     NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
+    CONSTRAINT pk_movies PRIMARY KEY (id, release_date)
+) PARTITION BY RANGE (release_date);
+
+CREATE TABLE IF NOT EXISTS movies_1870s PARTITION OF movies FOR VALUES FROM ('1870-01-01') TO ('1880-01-01');
+CREATE TABLE IF NOT EXISTS movies_1880s PARTITION OF movies FOR VALUES FROM ('1880-01-01') TO ('1890-01-01');
+CREATE TABLE IF NOT EXISTS movies_1890s PARTITION OF movies FOR VALUES FROM ('1890-01-01') TO ('1900-01-01');
+CREATE TABLE IF NOT EXISTS movies_1900s PARTITION OF movies FOR VALUES FROM ('1900-01-01') TO ('1910-01-01');
+CREATE TABLE IF NOT EXISTS movies_1910s PARTITION OF movies FOR VALUES FROM ('1910-01-01') TO ('1920-01-01');
+CREATE TABLE IF NOT EXISTS movies_1920s PARTITION OF movies FOR VALUES FROM ('1920-01-01') TO ('1930-01-01');
+CREATE TABLE IF NOT EXISTS movies_1930s PARTITION OF movies FOR VALUES FROM ('1930-01-01') TO ('1940-01-01');
+CREATE TABLE IF NOT EXISTS movies_1940s PARTITION OF movies FOR VALUES FROM ('1940-01-01') TO ('1950-01-01');
+CREATE TABLE IF NOT EXISTS movies_1950s PARTITION OF movies FOR VALUES FROM ('1950-01-01') TO ('1960-01-01');
+CREATE TABLE IF NOT EXISTS movies_1960s PARTITION OF movies FOR VALUES FROM ('1960-01-01') TO ('1970-01-01');
+CREATE TABLE IF NOT EXISTS movies_1970s PARTITION OF movies FOR VALUES FROM ('1970-01-01') TO ('1980-01-01');
+CREATE TABLE IF NOT EXISTS movies_1980s PARTITION OF movies FOR VALUES FROM ('1980-01-01') TO ('1990-01-01');
+CREATE TABLE IF NOT EXISTS movies_1990s PARTITION OF movies FOR VALUES FROM ('1990-01-01') TO ('2000-01-01');
+CREATE TABLE IF NOT EXISTS movies_2000s PARTITION OF movies FOR VALUES FROM ('2000-01-01') TO ('2010-01-01');
+CREATE TABLE IF NOT EXISTS movies_2010s PARTITION OF movies FOR VALUES FROM ('2010-01-01') TO ('2020-01-01');
+CREATE TABLE IF NOT EXISTS movies_default PARTITION OF movies DEFAULT;
+
+-- Индексы секционированной таблицы создаются в каждой секции, в том числе в новых
+CREATE INDEX IF NOT EXISTS idx_movies_title_id ON movies (title, id);
+CREATE INDEX IF NOT EXISTS idx_movies_release_date_id ON movies (release_date, id);
+CREATE INDEX IF NOT EXISTS idx_movies_genre_release_date ON movies (genre, release_date);
+CREATE INDEX IF NOT EXISTS idx_movies_director_prefix ON movies (director varchar_pattern_ops, release_date);
+CREATE INDEX IF NOT EXISTS idx_movies_title_prefix ON movies (title varchar_pattern_ops);
+
+-- Версия каталога: увеличивается один раз на каждую изменяющую таблицу movies инструкцию
+-- и фиксируется вместе с ней. Используется для условных GET-запросов к спискам фильмов.
+-- Счётчик разбит на 16 строк: инструкция увеличивает строку своего соединения, поэтому
+-- одновременные транзакции разных соединений не ждут друг друга на одной строке.
+-- Версия каталога — сумма строк, время изменения — максимальное из них.
+CREATE TABLE IF NOT EXISTS movies_catalog
+(
+    id         INT                      NOT NULL,
+    version    BIGINT                   NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_movies_catalog PRIMARY KEY (id)
+);
+
+INSERT INTO movies_catalog (id, version, updated_at)
+SELECT shard, 0, now()
+FROM generate_series(0, 15) AS shard
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION movies_catalog_bump() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+'BEGIN
+    UPDATE movies_catalog SET version = version + 1, updated_at = now() WHERE id = pg_backend_pid() % 16;
+    RETURN NULL;
+END';
+
+DROP TRIGGER IF EXISTS trg_movies_catalog_bump ON movies;
+
+CREATE TRIGGER trg_movies_catalog_bump
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON movies
+    FOR EACH STATEMENT
+EXECUTE FUNCTION movies_catalog_bump();
+
+DELETE
+from movies;
+
+ALTER TABLE movies
+    ALTER COLUMN id RESTART WITH 1;
\ No newline at end of file
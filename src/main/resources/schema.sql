@@ -5,9 +5,55 @@ CREATE TABLE IF NOT EXISTS movies
     director    VARCHAR(255)                            NOT NULL,
     release_date DATE                                    NOT NULL,
     genre       VARCHAR(255)                            NOT NULL,
+    version     BIGINT                   DEFAULT 0     NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL,
     CONSTRAINT pk_user PRIMARY KEY (id)
 );
 
+ALTER TABLE movies
+    ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE movies
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE DEFAULT now() NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_movies_title_id ON movies (title, id);
+CREATE INDEX IF NOT EXISTS idx_movies_release_date_id ON movies (release_date, id);
+CREATE INDEX IF NOT EXISTS idx_movies_genre_release_date ON movies (genre, release_date);
+CREATE INDEX IF NOT EXISTS idx_movies_director_prefix ON movies (director varchar_pattern_ops, release_date);
+CREATE INDEX IF NOT EXISTS idx_movies_title_prefix ON movies (title varchar_pattern_ops);
+
+-- Версия каталога: увеличивается один раз на каждую изменяющую таблицу movies инструкцию
+-- и фиксируется вместе с ней. Используется для условных GET-запросов к спискам фильмов.
+-- Счётчик разбит на 16 строк: инструкция увеличивает строку своего соединения, поэтому
+-- одновременные транзакции разных соединений не ждут друг друга на одной строке.
+-- Версия каталога — сумма строк, время изменения — максимальное из них.
+CREATE TABLE IF NOT EXISTS movies_catalog
+(
+    id         INT                      NOT NULL,
+    version    BIGINT                   NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT pk_movies_catalog PRIMARY KEY (id)
+);
+
+INSERT INTO movies_catalog (id, version, updated_at)
+SELECT shard, 0, now()
+FROM generate_series(0, 15) AS shard
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION movies_catalog_bump() RETURNS TRIGGER
+    LANGUAGE plpgsql AS
+'BEGIN
+    UPDATE movies_catalog SET version = version + 1, updated_at = now() WHERE id = pg_backend_pid() % 16;
+    RETURN NULL;
+END';
+
+DROP TRIGGER IF EXISTS trg_movies_catalog_bump ON movies;
+
+CREATE TRIGGER trg_movies_catalog_bump
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE
+    ON movies
+    FOR EACH STATEMENT
+EXECUTE FUNCTION movies_catalog_bump();
+
 DELETE
 from movies;
 
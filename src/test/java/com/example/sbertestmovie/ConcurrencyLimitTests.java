@@ -0,0 +1,131 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.limit.AdaptiveConcurrencyLimit;
+import com.example.sbertestmovie.limit.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class ConcurrencyLimitTests {
+
+    private static final long MILLIS = 1_000_000;
+
+    /**
+     * Тест адаптации ограничения к задержке запросов.
+     * @result При стабильной задержке и полной загрузке ограничение растёт, при росте задержки — уменьшается в несколько раз,
+     * а при низкой загрузке не меняется.
+     */
+    @Test
+    void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MILLIS, limit.getLimit(), true);
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.release(10 * MILLIS, 1, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(grown);
+
+        for (int i = 0; i < 50; i++) {
+            limit.tryAcquire();
+            limit.release(100 * MILLIS, limit.getLimit(), true);
+        }
+        assertThat(limit.getLimit()).isLessThan(grown / 4);
+        assertThat(limit.getInFlight()).isZero();
+    }
+
+    /**
+     * Тест отклонения запросов сверх ограничения.
+     * @result Запрос сверх ограничения отклоняется ответом 503 с заголовком Retry-After и учитывается в метрике,
+     * а ограничение изменений не влияет на чтения.
+     */
+    @Test
+    void testRejectsOverLimit() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimit(1, 1, 1),
+                writeLimit, Duration.ofSeconds(2), 500, registry);
+        writeLimit.tryAcquire();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        FilterChain rejectedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("POST", "/movies"), rejected, rejectedChain);
+        MockHttpServletResponse accepted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/1"), accepted, new MockFilterChain());
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(accepted.getStatus()).isEqualTo(200);
+        assertThat(registry.get("movies.limit.rejected").tag("type", "write").counter().count()).isEqualTo(1.0);
+        assertThat(registry.get("movies.limit.rejected").tag("type", "read").counter().count()).isZero();
+        assertThat(registry.get("movies.limit.inflight").tag("type", "read").gauge().value()).isZero();
+    }
+
+    /**
+     * Тест классификации запросов по маршруту.
+     * @result {@code POST /movies/by-ids} учитывается как чтение и не отклоняется при исчерпанном ограничении
+     * изменений, а потоковые выдачи не ограничиваются.
+     */
+    @Test
+    void testClassifiesByRoute() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimit readLimit = new AdaptiveConcurrencyLimit(1, 1, 1);
+        AdaptiveConcurrencyLimit writeLimit = new AdaptiveConcurrencyLimit(1, 1, 1);
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimit, writeLimit, Duration.ofSeconds(2), 500, registry);
+        writeLimit.tryAcquire();
+
+        MockHttpServletResponse byIds = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/movies/by-ids"), byIds, new MockFilterChain());
+        readLimit.tryAcquire();
+        MockHttpServletResponse stream = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/stream"), stream, new MockFilterChain());
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/export"), export, new MockFilterChain());
+
+        assertThat(byIds.getStatus()).isEqualTo(200);
+        assertThat(stream.getStatus()).isEqualTo(200);
+        assertThat(export.getStatus()).isEqualTo(200);
+        assertThat(registry.get("movies.limit.rejected").tag("type", "write").counter().count()).isZero();
+    }
+
+    /**
+     * Тест исключения больших страниц из подстройки ограничения.
+     * @result Страница {@code GET /movies} от {@code movies.page.stream-min-size} фильмов занимает место в ограничении,
+     * но её длительность не используется для подстройки, а длительность обычной страницы используется.
+     */
+    @Test
+    void testLargePagesAreNotSampled() throws Exception {
+        AdaptiveConcurrencyLimit readLimit = spy(new AdaptiveConcurrencyLimit(20, 4, 100));
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(readLimit, new AdaptiveConcurrencyLimit(20, 4, 100),
+                Duration.ofSeconds(2), 500, new SimpleMeterRegistry());
+
+        MockHttpServletRequest largePage = new MockHttpServletRequest("GET", "/movies");
+        largePage.setParameter("size", "500");
+        filter.doFilter(largePage, new MockHttpServletResponse(), new MockFilterChain());
+        verify(readLimit).tryAcquire();
+        verify(readLimit).release(anyLong(), anyInt(), eq(false));
+
+        MockHttpServletRequest page = new MockHttpServletRequest("GET", "/movies");
+        page.setParameter("size", "499");
+        filter.doFilter(page, new MockHttpServletResponse(), new MockFilterChain());
+        verify(readLimit).release(anyLong(), anyInt(), eq(true));
+    }
+}
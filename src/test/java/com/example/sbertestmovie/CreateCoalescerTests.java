@@ -0,0 +1,194 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.exception.SaveException;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import com.example.sbertestmovie.service.MovieCreateCoalescer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class CreateCoalescerTests {
+    private MovieJdbcRepository movieJdbcRepository;
+    private MovieCreateCoalescer coalescer;
+    private SimpleMeterRegistry registry;
+    private CountDownLatch firstInsert;
+    private final AtomicLong ids = new AtomicLong();
+
+    /**
+     * Инициализация объединения с заглушкой репозитория перед каждым тестом.
+     * <p>
+     * Первая вставка задерживается, пока остальные фильмы не встанут в очередь.
+     * Вставка пакета с фильмом «Broken» завершается ошибкой.
+     * </p>
+     */
+    @BeforeEach
+    void init() {
+        movieJdbcRepository = mock(MovieJdbcRepository.class);
+        firstInsert = new CountDownLatch(1);
+        when(movieJdbcRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            firstInsert.await();
+            List<Movie> movies = invocation.getArgument(0);
+            if (movies.stream().anyMatch(movie -> movie.getTitle().equals("Broken"))) {
+                throw new IllegalStateException("Нарушено ограничение");
+            }
+            movies.forEach(movie -> movie.setId(ids.incrementAndGet()));
+            return movies;
+        });
+        coalescer = new MovieCreateCoalescer(movieJdbcRepository, true, 64, Duration.ofMillis(50), Duration.ofSeconds(5));
+        registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+        coalescer.start();
+    }
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        coalescer.stop();
+    }
+
+    /**
+     * Тест объединения одновременных созданий.
+     * @result Фильмы вставляются меньшим числом пакетов, каждый вызывающий поток получает свой фильм с идентификатором.
+     */
+    @Test
+    void testConcurrentCreatesCoalesced() throws Exception {
+        List<Future<Movie>> results = insertConcurrently("Wolfwalkers", 20);
+        firstInsert.countDown();
+
+        List<Long> createdIds = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            Movie movie = results.get(i).get();
+            assertThat(movie.getTitle()).isEqualTo("Wolfwalkers " + i);
+            createdIds.add(movie.getId());
+        }
+        assertThat(createdIds).doesNotContainNull().doesNotHaveDuplicates();
+        verify(movieJdbcRepository, atMost(19)).insertAll(anyList());
+        assertThat(registry.get("movies.create.batch.size").summary().max()).isGreaterThan(1);
+    }
+
+    /**
+     * Тест изоляции ошибок внутри пакета.
+     * @result Ошибка вставки одного фильма передаётся только его запросу, остальные фильмы создаются.
+     */
+    @Test
+    void testFailureIsolated() throws Exception {
+        List<Future<Movie>> results = insertConcurrently("Song of the Sea", 5);
+        CompletableFuture<Movie> broken = CompletableFuture.supplyAsync(() -> coalescer.insert(movie("Broken")));
+        Thread.sleep(20);
+        firstInsert.countDown();
+
+        for (Future<Movie> result : results) {
+            assertThat(result.get().getId()).isNotNull();
+        }
+        Throwable thrown = catchThrowable(broken::get);
+        assertThat(thrown).hasCauseInstanceOf(SaveException.class);
+    }
+
+    /**
+     * Тест ограниченного ожидания вставки.
+     * @result Запрос, фильм которого не попал в пакет за время ожидания, получает ошибку, и этот фильм
+     * не вставляется и после освобождения потока вставки; уже вставляемый фильм дожидается своей вставки.
+     */
+    @Test
+    void testWaitIsBounded() throws Exception {
+        coalescer.stop();
+        coalescer = new MovieCreateCoalescer(movieJdbcRepository, true, 1, Duration.ZERO, Duration.ofMillis(100));
+        coalescer.start();
+        CompletableFuture<Movie> inserting = CompletableFuture.supplyAsync(() -> coalescer.insert(movie("Wolfwalkers")));
+        Thread.sleep(20);
+        CompletableFuture<Movie> queued = CompletableFuture.supplyAsync(() -> coalescer.insert(movie("Song of the Sea")));
+
+        assertThat(catchThrowable(queued::get)).hasCauseInstanceOf(SaveException.class);
+        assertThat(inserting).isNotDone();
+        firstInsert.countDown();
+        assertThat(inserting.get().getId()).isNotNull();
+        assertThat(coalescer.insert(movie("Wolfwalkers 2")).getId()).isNotNull();
+
+        verify(movieJdbcRepository, times(2)).insertAll(anyList());
+        verify(movieJdbcRepository, never()).insertAll(argThat(movies -> movies.stream()
+                .anyMatch(movie -> movie.getTitle().equals("Song of the Sea"))));
+    }
+
+    /**
+     * Тест медленной вставки, которая дольше времени ожидания.
+     * @result Вызывающий поток не получает ошибку для сохранённого фильма, а дожидается его вставки.
+     */
+    @Test
+    void testSlowInsertNotReportedAsFailed() throws Exception {
+        coalescer.stop();
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            List<Movie> movies = invocation.getArgument(0);
+            movies.forEach(movie -> movie.setId(ids.incrementAndGet()));
+            return movies;
+        }).when(movieJdbcRepository).insertAll(anyList());
+        coalescer = new MovieCreateCoalescer(movieJdbcRepository, true, 64, Duration.ZERO, Duration.ofMillis(50));
+        coalescer.start();
+
+        Movie created = coalescer.insert(movie("Wolfwalkers"));
+
+        assertThat(created.getId()).isNotNull();
+        verify(movieJdbcRepository, times(1)).insertAll(anyList());
+    }
+
+    /**
+     * Тест завершения потока вставки из-за ошибки.
+     * @result Ожидающие запросы получают ошибку сохранения, а новые запросы отклоняются сразу.
+     */
+    @Test
+    void testFlusherErrorFailsWaiters() throws Exception {
+        doAnswer(invocation -> {
+            firstInsert.await();
+            throw new StackOverflowError();
+        }).when(movieJdbcRepository).insertAll(anyList());
+        List<Future<Movie>> results = insertConcurrently("Wolfwalkers", 5);
+        firstInsert.countDown();
+
+        for (Future<Movie> result : results) {
+            assertThat(catchThrowable(result::get)).hasCauseInstanceOf(SaveException.class);
+        }
+        assertThat(catchThrowable(() -> coalescer.insert(movie("Song of the Sea")))).isInstanceOf(SaveException.class);
+    }
+
+    /**
+     * Одновременная вставка фильмов из отдельных потоков. Вспомогательный метод.
+     *
+     * @param title общая часть названия фильмов
+     * @param count количество фильмов
+     * @return результаты вставки в порядке номеров фильмов
+     */
+    private List<Future<Movie>> insertConcurrently(String title, int count) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        List<Future<Movie>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Movie movie = movie(title + " " + i);
+            results.add(executor.submit(() -> coalescer.insert(movie)));
+        }
+        executor.shutdown();
+        Thread.sleep(20);
+        return results;
+    }
+
+    private static Movie movie(String title) {
+        return new Movie(title, "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.cache.MovieCache;
+import com.example.sbertestmovie.cache.MovieInvalidationBus;
+import com.example.sbertestmovie.cache.MovieSecondLevelCache;
+import com.example.sbertestmovie.dto.MovieChangesDto;
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieGroupDto;
+import com.example.sbertestmovie.dto.VersionedMovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.search.MovieSearchIndexLoader;
+import com.example.sbertestmovie.stats.MovieStats;
+import com.example.sbertestmovie.stats.MovieStatsLoader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class InvalidationBusTests {
+    private JdbcTemplate jdbcTemplate;
+    private MovieCache movieCache;
+    private MovieSecondLevelCache secondLevelCache;
+    private MovieStats movieStats;
+    private MovieSearchIndexLoader movieSearchIndexLoader;
+    private MovieInvalidationBus bus;
+
+    /**
+     * Инициализация шины с заглушками базы данных, кэша второго уровня и поискового индекса перед каждым тестом.
+     */
+    @BeforeEach
+    void init() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        secondLevelCache = mock(MovieSecondLevelCache.class);
+        movieCache = new MovieCache(100, Duration.ofMinutes(1), Duration.ZERO);
+        movieStats = new MovieStats();
+        movieSearchIndexLoader = mock(MovieSearchIndexLoader.class);
+        bus = new MovieInvalidationBus(jdbcTemplate, null, movieCache, secondLevelCache, movieStats,
+                mock(MovieStatsLoader.class), movieSearchIndexLoader, true, "movies_invalidation");
+    }
+
+    /**
+     * Тест разбиения событий на уведомления ограниченной длины.
+     * @result Каждое уведомление не длиннее ограничения, а разбор всех уведомлений возвращает исходные события.
+     */
+    @Test
+    void testEncodeDecode() {
+        Map<Long, Long> versions = new LinkedHashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            versions.put(id, id * 10);
+        }
+        Map<MovieGroupDto, Long> counts = new LinkedHashMap<>();
+        counts.put(new MovieGroupDto(Genre.DRAMA, 1972, "Andrei Tarkovsky"), -1L);
+        counts.put(new MovieGroupDto(Genre.COMEDY, 2001, "Jean-Pierre Jeunet, Marc Caro|2:3"), 2L);
+
+        List<String> payloads = MovieInvalidationBus.encode("node", new MovieChangesDto(versions, counts), 64);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allMatch(payload -> payload.length() <= 64 && payload.startsWith("node|"));
+        Map<Long, Long> decodedVersions = new LinkedHashMap<>();
+        Map<MovieGroupDto, Long> decodedCounts = new LinkedHashMap<>();
+        payloads.forEach(payload -> {
+            MovieChangesDto changes = MovieInvalidationBus.decode(payload.substring("node|".length()));
+            decodedVersions.putAll(changes.getVersions());
+            decodedCounts.putAll(changes.getCounts());
+        });
+        assertThat(decodedVersions).isEqualTo(versions);
+        assertThat(decodedCounts).isEqualTo(counts);
+    }
+
+    /**
+     * Тест объединения событий перед отправкой.
+     * @result Несколько изменений одного фильма отправляются одним уведомлением с наибольшей версией.
+     */
+    @Test
+    void testFlushCoalesces() {
+        bus.publish(1L, 3);
+        bus.publish(1L, 7);
+        bus.publish(1L, 5);
+
+        bus.flush();
+        bus.flush();
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(1)).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq("movies_invalidation"), payload.capture());
+        assertThat(payload.getValue()).endsWith("|1:7|");
+    }
+
+    /**
+     * Тест обработки уведомлений.
+     * @result Удаляются только записи с версией меньше полученной, собственные уведомления пропускаются.
+     */
+    @Test
+    void testOnMessage() {
+        MovieDto movieDto = new MovieDto("Wolfwalkers", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        movieCache.get(1L, id -> new VersionedMovieDto(movieDto, 3L, Instant.now()));
+        movieCache.get(2L, id -> new VersionedMovieDto(movieDto, 7L, Instant.now()));
+        bus.publish(1L, 4);
+        bus.flush();
+        ArgumentCaptor<String> own = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), anyString(), own.capture());
+
+        bus.onMessage(own.getValue());
+        assertThat(movieCache.size()).isEqualTo(2);
+        verifyNoInteractions(secondLevelCache);
+
+        bus.onMessage("other|1:5,2:5");
+        assertThat(movieCache.get(2L, id -> null).getVersion()).isEqualTo(7L);
+        assertThat(movieCache.get(1L, id -> null)).isNull();
+        verify(secondLevelCache).evictAll(Set.of(1L, 2L));
+    }
+
+    /**
+     * Тест применения изменений другого экземпляра приложения к статистике и поисковому индексу.
+     * @result Изменение фильма переносит его в статистике из прежней группы в новую, удаление уменьшает
+     * количество фильмов, а изменённые и удалённые фильмы перечитываются в поисковый индекс.
+     */
+    @Test
+    void testRemoteChangesApplied() {
+        Movie solaris = new Movie("Solaris", "Andrei Tarkovsky", LocalDate.of(1972, 5, 13), Genre.DRAMA);
+        solaris.setId(1L);
+        solaris.setVersion(0L);
+        Movie stalker = new Movie("Stalker", "Andrei Tarkovsky", LocalDate.of(1979, 5, 25), Genre.DRAMA);
+        stalker.setId(2L);
+        stalker.setVersion(0L);
+        movieStats.add(solaris);
+        movieStats.add(stalker);
+        Movie remake = new Movie("Solaris", "Steven Soderbergh", LocalDate.of(2002, 11, 27), Genre.DRAMA);
+        remake.setId(1L);
+        remake.setVersion(1L);
+        bus.publishUpdated(solaris, remake);
+        bus.publishDeleted(stalker);
+        bus.flush();
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), anyString(), payload.capture());
+
+        bus.onMessage(payload.getValue().replaceFirst("^[^|]*", "other"));
+
+        assertThat(movieStats.total()).isEqualTo(1);
+        assertThat(movieStats.snapshot(10).getByDirector()).containsExactly(Map.entry("Steven Soderbergh", 1L));
+        assertThat(movieStats.snapshot(10).getByYear()).containsExactly(Map.entry(2002, 1L));
+        verify(movieSearchIndexLoader).reload(Set.of(1L, 2L));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import com.example.sbertestmovie.repository.MoviePartitionMaintainer;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+public class PartitionMaintainerTests {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-06-01T00:00:00Z"), ZoneOffset.UTC);
+
+    /**
+     * Тест создания секций.
+     * @result Создаются секции с 2020 года по текущий год плюс заданное количество лет вперёд,
+     * а также секции для годов фильмов из секции по умолчанию.
+     */
+    @Test
+    void testCreatesMissingPartitions() {
+        MovieJdbcRepository movieJdbcRepository = mock(MovieJdbcRepository.class);
+        when(movieJdbcRepository.findDefaultPartitionYears()).thenReturn(List.of(2031, 1850, 2021));
+
+        new MoviePartitionMaintainer(movieJdbcRepository, 2, clock).maintain();
+
+        for (int year : List.of(1850, 2020, 2021, 2022, 2023, 2024, 2025, 2026, 2031)) {
+            verify(movieJdbcRepository).createYearPartition(year);
+        }
+        verify(movieJdbcRepository, times(9)).createYearPartition(anyInt());
+    }
+
+    /**
+     * Тест недоступной базы данных.
+     * @result Ошибка не пробрасывается, секции создаются при следующей проверке.
+     */
+    @Test
+    void testDatabaseUnavailable() {
+        MovieJdbcRepository movieJdbcRepository = mock(MovieJdbcRepository.class);
+        when(movieJdbcRepository.findDefaultPartitionYears()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        new MoviePartitionMaintainer(movieJdbcRepository, 2, clock).maintain();
+
+        verify(movieJdbcRepository, never()).createYearPartition(anyInt());
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import com.example.sbertestmovie.repository.MoviePartitionMaintainer;
+import com.example.sbertestmovie.service.MovieService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты секционированной таблицы фильмов (профиль {@code partitioned}) на локальном PostgreSQL.
+ * <p>
+ * Схема schema-partitioned.sql создаётся при запуске контекста в отдельной базе данных {@value #DATABASE}.
+ * Запросы Hibernate записываются {@link SqlCapture}, чтобы получить их планы.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=partitioned",
+        "spring.datasource.url=jdbc:postgresql://localhost:5432/" + PartitionedApplicationTests.DATABASE
+                + "?reWriteBatchedInserts=true",
+        "movies.cache.notify.enabled=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.sbertestmovie.PartitionedApplicationTests$SqlCapture"
+})
+class PartitionedApplicationTests {
+
+    static final String DATABASE = "sbermovie_partitioned_test";
+
+    @Autowired
+    private MovieJdbcRepository movieJdbcRepository;
+
+    @Autowired
+    private MoviePartitionMaintainer moviePartitionMaintainer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovieService movieService;
+
+    /**
+     * Запись SQL-запросов, выполняемых Hibernate.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    /**
+     * Создание пустой базы данных перед запуском контекста.
+     */
+    @BeforeAll
+    static void createDatabase() {
+        JdbcTemplate server = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:postgresql://localhost:5432/postgres", "postgres", "iamroot"));
+        server.execute("DROP DATABASE IF EXISTS " + DATABASE + " WITH (FORCE)");
+        server.execute("CREATE DATABASE " + DATABASE);
+    }
+
+    /**
+     * Тест создания секций при запуске приложения.
+     * @result Секции по годам с 2020 года по текущий год плюс movies.partitions.years-ahead присоединены к таблице фильмов.
+     */
+    @Test
+    void testCreatesYearPartitionsOnStartup() {
+        List<String> partitions = jdbcTemplate.queryForList(
+                "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = 'movies'::regclass", String.class);
+
+        int lastYear = Year.now().getValue() + 2;
+        for (int year = MoviePartitionMaintainer.FIRST_YEARLY_PARTITION; year <= lastYear; year++) {
+            assertThat(partitions).contains("movies_y" + year);
+        }
+        assertThat(partitions).contains("movies_1870s", "movies_2010s", "movies_default")
+                .doesNotContain("movies_y" + (lastYear + 1));
+    }
+
+    /**
+     * Тест переноса фильмов из секции по умолчанию.
+     * @result Для годов фильмов из секции по умолчанию создаются секции, фильмы переносятся в них
+     * с прежними идентификаторами, а новые фильмы этих годов попадают сразу в новые секции.
+     */
+    @Test
+    void testMovesMoviesFromDefaultPartition() {
+        List<Movie> movies = transactionTemplate.execute(status -> movieJdbcRepository.insertAll(List.of(
+                new Movie("The Time Machine", "George Pal", LocalDate.of(2040, 3, 1), Genre.FANTASY),
+                new Movie("Hereafter", "Clint Eastwood", LocalDate.of(1850, 7, 14), Genre.DRAMA))));
+        assertThat(partitionOf(movies.get(0).getId())).isEqualTo("movies_default");
+        assertThat(partitionOf(movies.get(1).getId())).isEqualTo("movies_default");
+        assertThat(movieJdbcRepository.findDefaultPartitionYears()).containsExactlyInAnyOrder(1850, 2040);
+
+        moviePartitionMaintainer.maintain();
+
+        assertThat(partitionOf(movies.get(0).getId())).isEqualTo("movies_y2040");
+        assertThat(partitionOf(movies.get(1).getId())).isEqualTo("movies_y1850");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM movies_default", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM movies WHERE release_date >= DATE '2040-01-01'",
+                String.class)).containsExactly("The Time Machine");
+
+        Movie next = transactionTemplate.execute(status -> movieJdbcRepository.insertAll(List.of(
+                new Movie("The Time Machine 2", "George Pal", LocalDate.of(2040, 9, 1), Genre.FANTASY)))).get(0);
+        assertThat(partitionOf(next.getId())).isEqualTo("movies_y2040");
+    }
+
+    /**
+     * Тест отсечения секций при фильтрации по дате релиза.
+     * @result План запроса страницы, который выполняет getAllFiltered для диапазона дат внутри 2023 года,
+     * читает только секцию movies_y2023.
+     */
+    @Test
+    void testFilteredPageReadsOnlyMatchingPartitions() {
+        SqlCapture.STATEMENTS.clear();
+        movieService.getAllFiltered(new MovieFilterDto(null, null, null, LocalDate.of(2023, 3, 1), LocalDate.of(2023, 9, 30)),
+                PageRequest.of(0, 20, Sort.by("releaseDate")));
+        String sql = SqlCapture.STATEMENTS.stream()
+                .filter(statement -> statement.contains("release_date") && statement.contains("order by"))
+                .findFirst().orElseThrow();
+
+        // Параметры запроса: границы дат, смещение и размер страницы
+        String[] parameters = {"DATE '2023-03-01'", "DATE '2023-09-30'", "0", "20"};
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(parameters.length);
+        for (String parameter : parameters) {
+            sql = sql.replaceFirst("\\?", parameter);
+        }
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+
+        List<String> relations = new ArrayList<>();
+        Matcher matcher = Pattern.compile("\\bmovies_\\w+").matcher(plan);
+        while (matcher.find()) {
+            relations.add(matcher.group());
+        }
+        assertThat(relations).isNotEmpty().allMatch(relation -> relation.startsWith("movies_y2023"), plan);
+    }
+
+    /**
+     * Тест очистки секционированной таблицы.
+     * @result Триггер на TRUNCATE секционированной таблицы увеличивает версию каталога.
+     */
+    @Test
+    void testTruncateChangesCatalogVersion() {
+        long version = movieJdbcRepository.findCatalogVersion().getVersion();
+
+        jdbcTemplate.execute("TRUNCATE movies");
+
+        assertThat(movieJdbcRepository.findCatalogVersion().getVersion()).isGreaterThan(version);
+        assertThat(movieJdbcRepository.count()).isZero();
+    }
+
+    /**
+     * Получение секции, в которой хранится фильм. Вспомогательный метод.
+     *
+     * @param id идентификатор фильма
+     * @return имя секции
+     */
+    private String partitionOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT tableoid::regclass::text FROM movies WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.profiles.active=reactive")
+class ReactiveApplicationTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    /**
+     * Тест запуска приложения в профиле reactive.
+     * @result Контекст поднимается без JPA и JDBC, созданный через R2DBC фильм возвращается в списке фильмов.
+     */
+    @Test
+    void contextLoads() {
+        MovieDto created = webTestClient.post().uri("/movies")
+                .bodyValue(new MovieDto("Paterson", "Jim Jarmusch", LocalDate.of(2016, 5, 16), Genre.DRAMA))
+                .exchange()
+                .expectStatus().is2xxSuccessful()
+                .expectBody(MovieDto.class)
+                .returnResult().getResponseBody();
+
+        assertThat(created).isNotNull();
+        assertThat(created.getTitle()).isEqualTo("Paterson");
+        webTestClient.get().uri("/movies?page=0&size=2000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(MovieDto.class)
+                .value(movies -> assertThat(movies).contains(created));
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Тесты чтения с реплик на локальном PostgreSQL.
+ * <p>
+ * Репликой служит отдельная база данных {@value #REPLICA_DATABASE} с той же схемой. Изменения основной базы
+ * данных в неё не попадают, пока тест не перенесёт их сам, поэтому она ведёт себя как отстающая реплика.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.profiles.active=replicas",
+        "movies.datasource.replicas.urls=jdbc:postgresql://localhost:5432/" + ReplicaApplicationTests.REPLICA_DATABASE,
+        "movies.cache.notify.enabled=false",
+        "movies.cache.evict-again-after=PT1S"
+})
+@AutoConfigureMockMvc
+class ReplicaApplicationTests {
+
+    static final String REPLICA_DATABASE = "sbermovie_replica_test";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    /**
+     * Создание базы данных реплики со схемой приложения перед запуском контекста.
+     */
+    @BeforeAll
+    static void createReplica() {
+        JdbcTemplate server = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:postgresql://localhost:5432/postgres", "postgres", "iamroot"));
+        server.execute("DROP DATABASE IF EXISTS " + REPLICA_DATABASE + " WITH (FORCE)");
+        server.execute("CREATE DATABASE " + REPLICA_DATABASE);
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:postgresql://localhost:5432/" + REPLICA_DATABASE, "postgres", "iamroot");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        replica = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Тест условного запроса к списку фильмов при отстающей реплике.
+     * @result Версия каталога читается с той же реплики, что и страница: пока реплика отстаёт, ETag ответа
+     * не меняется вместе с его устаревшим содержимым, а после догоняния реплики условный запрос
+     * со старым ETag получает новую страницу.
+     */
+    @Test
+    void testCatalogVersionReadFromPageReplica() throws Exception {
+        // Страница от movies.page.stream-min-size читается из базы данных, минуя кэш запросов
+        String eTag = mockMvc.perform(get("/movies?page=0&size=500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult created = mockMvc.perform(post("/movies")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new MovieDto("Stalker", "Andrei Tarkovsky", LocalDate.of(1979, 5, 25), Genre.DRAMA))))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn();
+        assertThat(created.getResponse().getCookies()).isNotEmpty();
+
+        mockMvc.perform(get("/movies?page=0&size=500"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(jsonPath("$.totalElements").value(0));
+
+        replica.update("INSERT INTO movies (title, director, release_date, genre) "
+                + "VALUES ('Stalker', 'Andrei Tarkovsky', DATE '1979-05-25', 'DRAMA')");
+        mockMvc.perform(get("/movies?page=0&size=500").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Stalker"));
+    }
+
+    /**
+     * Тест кэшей при отстающей реплике.
+     * @result Промах кэша фильма загружается с основной базы данных, поэтому чтение по идентификатору сразу
+     * возвращает новое состояние; страница, загруженная в кэш запросов с отстающей реплики сразу после изменения,
+     * удаляется повторно через {@code movies.cache.evict-again-after}, и следующие чтения возвращают новое состояние.
+     */
+    @Test
+    void testCachesEvictedAgainAfterReplicaLag() throws Exception {
+        mockMvc.perform(post("/movies")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new MovieDto("Solaris", "Andrei Tarkovsky", LocalDate.of(1972, 5, 13), Genre.DRAMA))))
+                .andExpect(status().is2xxSuccessful());
+        Long id = primary.queryForObject("SELECT id FROM movies WHERE title = 'Solaris'", Long.class);
+        replica.update("INSERT INTO movies (id, title, director, release_date, genre) OVERRIDING SYSTEM VALUE "
+                + "VALUES (?, 'Solaris', 'Andrei Tarkovsky', DATE '1972-05-13', 'DRAMA')", id);
+        expectDirector(id, "Andrei Tarkovsky");
+
+        mockMvc.perform(patch("/movies/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"director\": \"Steven Soderbergh\"}"))
+                .andExpect(status().isOk());
+        expectMovieDirector(id, "Steven Soderbergh");
+        // Промах кэша запросов сразу после изменения загружает старую страницу с отстающей реплики
+        expectPageDirector("Andrei Tarkovsky");
+        replica.update("UPDATE movies SET director = 'Steven Soderbergh', version = version + 1 WHERE id = ?", id);
+        expectPageDirector("Andrei Tarkovsky");
+
+        Thread.sleep(1500);
+        expectDirector(id, "Steven Soderbergh");
+    }
+
+    /**
+     * Проверка режиссёра фильма при чтении по идентификатору и страницей с фильтрацией. Вспомогательный метод.
+     *
+     * @param id идентификатор фильма
+     * @param director ожидаемый режиссёр
+     */
+    private void expectDirector(Long id, String director) throws Exception {
+        expectMovieDirector(id, director);
+        expectPageDirector(director);
+    }
+
+    /**
+     * Проверка режиссёра фильма при чтении по идентификатору. Вспомогательный метод.
+     *
+     * @param id идентификатор фильма
+     * @param director ожидаемый режиссёр
+     */
+    private void expectMovieDirector(Long id, String director) throws Exception {
+        mockMvc.perform(get("/movies/" + id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.director").value(director));
+    }
+
+    /**
+     * Проверка режиссёра фильма на странице с фильтрацией. Вспомогательный метод.
+     *
+     * @param director ожидаемый режиссёр
+     */
+    private void expectPageDirector(String director) throws Exception {
+        mockMvc.perform(get("/movies?title=Solaris"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].director").value(director));
+    }
+}
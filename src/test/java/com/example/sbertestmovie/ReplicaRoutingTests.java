@@ -0,0 +1,124 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.datasource.ReadYourWritesFilter;
+import com.example.sbertestmovie.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ReplicaRoutingTests {
+    private HikariDataSource primary;
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReplicaRoutingDataSource dataSource;
+
+    /**
+     * Инициализация источника соединений с заглушками пулов основной базы данных и двух реплик перед каждым тестом.
+     */
+    @BeforeEach
+    void init() throws SQLException {
+        primary = pool();
+        replica1 = pool();
+        replica2 = pool();
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2),
+                ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+    }
+
+    /**
+     * Тест выбора базы данных для транзакций.
+     * @result Транзакции только для чтения выполняются на репликах по очереди, остальные и чтения
+     * с включённым чтением собственных изменений — на основной базе данных.
+     */
+    @Test
+    void testRouting() throws SQLException {
+        query(true);
+        query(true);
+        query(true);
+        query(false);
+        ReplicaRoutingDataSource.setPrimaryRequired(true);
+        try {
+            query(true);
+        } finally {
+            ReplicaRoutingDataSource.setPrimaryRequired(false);
+        }
+
+        verify(replica1, times(2)).getConnection();
+        verify(replica2, times(1)).getConnection();
+        // Одно соединение основной базы данных берётся для чтения настроек соединений по умолчанию
+        verify(primary, times(3)).getConnection();
+    }
+
+    /**
+     * Тест недоступной реплики.
+     * @result Чтение выполняется на основной базе данных.
+     */
+    @Test
+    void testReplicaUnavailable() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        query(true);
+
+        verify(replica1).getConnection();
+        verify(primary, times(2)).getConnection();
+    }
+
+    /**
+     * Тест фильтра чтения собственных изменений.
+     * @result Изменяющий запрос выполняется на основной базе данных и выставляет cookie, чтение с этой cookie
+     * тоже выполняется на основной базе данных, а чтение без неё, в том числе {@code POST /movies/by-ids}, — на реплике.
+     */
+    @Test
+    void testReadYourWritesFilter() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+        List<Boolean> primaryRequired = new ArrayList<>();
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/movies"), writeResponse,
+                (request, response) -> primaryRequired.add(ReplicaRoutingDataSource.isPrimaryRequired()));
+        Cookie cookie = writeResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        MockHttpServletRequest readAfterWrite = new MockHttpServletRequest("GET", "/movies/1");
+        readAfterWrite.setCookies(cookie);
+        filter.doFilter(readAfterWrite, new MockHttpServletResponse(),
+                (request, response) -> primaryRequired.add(ReplicaRoutingDataSource.isPrimaryRequired()));
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/1"), new MockHttpServletResponse(),
+                (request, response) -> primaryRequired.add(ReplicaRoutingDataSource.isPrimaryRequired()));
+        MockHttpServletResponse readByIdsResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/movies/by-ids"), readByIdsResponse,
+                (request, response) -> primaryRequired.add(ReplicaRoutingDataSource.isPrimaryRequired()));
+
+        assertThat(cookie).isNotNull();
+        assertThat(readByIdsResponse.getCookie(ReadYourWritesFilter.COOKIE_NAME)).isNull();
+        assertThat(primaryRequired).containsExactly(true, true, false, false);
+        assertThat(ReplicaRoutingDataSource.isPrimaryRequired()).isFalse();
+    }
+
+    /**
+     * Выполнение запроса в транзакции. Вспомогательный метод.
+     *
+     * @param readOnly транзакция только для чтения
+     */
+    private void query(boolean readOnly) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(readOnly);
+            connection.createStatement();
+        }
+    }
+
+    private static HikariDataSource pool() throws SQLException {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return pool;
+    }
+}
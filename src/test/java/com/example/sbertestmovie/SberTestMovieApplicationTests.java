@@ -1,13 +1,105 @@
 package com.example.sbertestmovie;
 
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.service.MovieService;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
 class SberTestMovieApplicationTests {
 
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * Тест изменений, сделанных другим экземпляром приложения.
+     * @result После уведомления другого экземпляра созданный им фильм находится полнотекстовым поиском
+     * и учитывается в статистике, а после уведомления об удалении исчезает из поиска и статистики.
+     */
+    @Test
+    void testRemoteChangesApplied() throws InterruptedException {
+        long total = movieService.getStats(0).getTotal();
+        Long id = jdbcTemplate.queryForObject("INSERT INTO movies (title, director, release_date, genre) "
+                + "VALUES ('Nostalghia', 'Andrei Tarkovsky', DATE '1983-05-17', 'DRAMA') RETURNING id", Long.class);
+        notifyFromOtherNode(id + ":0|DRAMA:1983:1:Andrei+Tarkovsky");
+
+        assertThat(await(() -> isFound("Nostalghia"))).isTrue();
+        assertThat(movieService.getStats(0).getTotal()).isEqualTo(total + 1);
+        assertThat(movieService.getStats(0).getByYear()).containsEntry(1983, 1L);
+
+        jdbcTemplate.update("DELETE FROM movies WHERE id = ?", id);
+        notifyFromOtherNode(id + ":1|DRAMA:1983:-1:Andrei+Tarkovsky");
+
+        assertThat(await(() -> !isFound("Nostalghia"))).isTrue();
+        assertThat(movieService.getStats(0).getTotal()).isEqualTo(total);
+    }
+
+    /**
+     * Тест выборок фильмов сразу в DTO-объекты.
+     * @result Срезы по дате релиза проходят фильмы с одинаковой датой по порядку id без пропусков и повторов,
+     * а страница по фильтру содержит только фильмы из диапазона дат.
+     */
+    @Test
+    void testProjectedSlicesAndFilteredPage() {
+        jdbcTemplate.update("INSERT INTO movies (title, director, release_date, genre) VALUES "
+                + "('Keyset A', 'Director', DATE '1901-01-01', 'DRAMA'), ('Keyset B', 'Director', DATE '1901-01-01', 'DRAMA'), "
+                + "('Keyset C', 'Director', DATE '1901-01-01', 'DRAMA'), ('Keyset D', 'Director', DATE '1901-01-02', 'DRAMA')");
+        try {
+            List<String> titles = new ArrayList<>();
+            MovieSliceDto slice = movieService.getAllAfter("", "releaseDate", 2);
+            titles.addAll(slice.getContent().stream().map(MovieDto::getTitle).toList());
+            while (slice.isHasNext() && titles.size() < 4) {
+                slice = movieService.getAllAfter(slice.getNext(), "releaseDate", 2);
+                titles.addAll(slice.getContent().stream().map(MovieDto::getTitle).toList());
+            }
+            assertThat(titles).startsWith("Keyset A", "Keyset B", "Keyset C", "Keyset D");
+
+            MovieFilterDto filter = new MovieFilterDto(null, null, "Keyset", LocalDate.of(1901, 1, 2), null);
+            assertThat(movieService.getAllFiltered(filter, PageRequest.of(0, 10, Sort.by("title"))).getContent())
+                    .extracting(MovieDto::getTitle).containsExactly("Keyset D");
+        } finally {
+            jdbcTemplate.update("DELETE FROM movies WHERE title LIKE 'Keyset %'");
+        }
+    }
+
+    private void notifyFromOtherNode(String items) {
+        jdbcTemplate.queryForList("SELECT pg_notify('movies_invalidation', ?)", "other|" + items);
+    }
+
+    private boolean isFound(String title) {
+        return movieService.search(title, 10).stream().map(MovieDto::getTitle).anyMatch(title::equals);
+    }
+
+    /**
+     * Ожидание условия не дольше пяти секунд. Вспомогательный метод.
+     *
+     * @param condition условие
+     * @return {@code true}, если условие выполнилось
+     */
+    private static boolean await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
 }
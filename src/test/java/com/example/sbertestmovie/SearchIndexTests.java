@@ -0,0 +1,104 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.search.MovieSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchIndexTests {
+    private MovieSearchIndex movieSearchIndex;
+
+    /**
+     * Инициализация индекса тестовыми фильмами перед каждым тестом.
+     */
+    @BeforeEach
+    void init() {
+        movieSearchIndex = new MovieSearchIndex();
+        movieSearchIndex.index(movie(1L, "Wolfwalkers", "Tomm Moore"));
+        movieSearchIndex.index(movie(2L, "Song of the Sea", "Tomm Moore"));
+        movieSearchIndex.index(movie(3L, "Spirited Away", "Hayao Miyazaki"));
+        movieSearchIndex.index(movie(4L, "The Secret of Kells", "Tomm Moore"));
+    }
+
+    /**
+     * Тест поиска фильма по точному названию.
+     * @result Первым в выдаче идёт фильм с совпадающим названием.
+     */
+    @Test
+    void testSearchByTitle() {
+        assertThat(movieSearchIndex.search("Spirited Away", 10)).startsWith(3L);
+    }
+
+    /**
+     * Тест поиска фильма по названию с опечаткой.
+     * @result Фильм находится, несмотря на опечатку в запросе.
+     */
+    @Test
+    void testSearchWithTypo() {
+        assertThat(movieSearchIndex.search("wolfwalkrs", 10)).containsExactly(1L);
+    }
+
+    /**
+     * Тест поиска фильмов по режиссёру с ограничением количества результатов.
+     * @result Возвращаются только фильмы режиссёра, не больше заданного количества.
+     */
+    @Test
+    void testSearchByDirectorWithLimit() {
+        long[] result = movieSearchIndex.search("Moore", 2);
+
+        assertThat(result).hasSize(2);
+        assertThat(result).doesNotContain(3L);
+    }
+
+    /**
+     * Тест обновления и удаления фильмов в индексе.
+     * @result Обновлённый фильм ищется по новому названию, а удалённый фильм не находится.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        movieSearchIndex.index(movie(1L, "Howl's Moving Castle", "Hayao Miyazaki"));
+        movieSearchIndex.remove(3L);
+
+        assertThat(movieSearchIndex.search("wolfwalkers", 10)).isEmpty();
+        assertThat(movieSearchIndex.search("moving castle", 10)).containsExactly(1L);
+        assertThat(movieSearchIndex.search("spirited", 10)).isEmpty();
+        assertThat(movieSearchIndex.size()).isEqualTo(3);
+    }
+
+    /**
+     * Тест удаления фильмов с общими триграммами.
+     * @result После удаления и повторной индексации части фильмов поиск по общему слову
+     * возвращает ровно оставшиеся фильмы.
+     */
+    @Test
+    void testRemoveSharedTrigrams() {
+        MovieSearchIndex index = new MovieSearchIndex();
+        for (long id = 1; id <= 100; id++) {
+            index.index(movie(id, "Night " + id, "Jim Jarmusch"));
+        }
+        for (long id = 1; id <= 100; id += 3) {
+            index.remove(id);
+        }
+        for (long id = 2; id <= 100; id += 7) {
+            index.index(movie(id, "Day " + id, "Jim Jarmusch"));
+        }
+
+        long[] expected = LongStream.rangeClosed(1, 100)
+                .filter(id -> id % 3 != 1 && (id - 2) % 7 != 0)
+                .toArray();
+        assertThat(index.search("night", 200)).containsExactlyInAnyOrder(expected);
+        assertThat(index.search("jarmusch", 200)).hasSize(index.size());
+    }
+
+    private static Movie movie(Long id, String title, String director) {
+        Movie movie = new Movie(title, director, LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        movie.setId(id);
+        return movie;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
+import com.example.sbertestmovie.repository.MovieRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты сброса кэша второго уровня и кэша запросов Hibernate после изменений через JDBC на локальном PostgreSQL.
+ * <p>
+ * Каждый тест кэширует фильм и страницу фильмов, изменяет их одним из методов {@link MovieJdbcRepository}
+ * в транзакции и проверяет, что следующие чтения не попадают в кэш и возвращают новое состояние.
+ * </p>
+ */
+@SpringBootTest(properties = "movies.cache.notify.enabled=false")
+class SecondLevelCacheTests {
+
+    @Autowired
+    private MovieJdbcRepository movieJdbcRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Movie movie;
+
+    /**
+     * Создание фильма и заполнение кэшей перед каждым тестом.
+     */
+    @BeforeEach
+    void init() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        movie = transactionTemplate.execute(status -> movieJdbcRepository.insertAll(
+                List.of(new Movie("Ivan's Childhood", "Andrei Tarkovsky", LocalDate.of(1962, 4, 6), Genre.DRAMA))))
+                .get(0);
+        findById();
+        findPage();
+        assertThat(entityCacheHit(this::findById)).isTrue();
+        assertThat(queryCacheHit(this::findPage)).isTrue();
+    }
+
+    /**
+     * Тест сброса кэшей после пакетной вставки.
+     * @result Страница читается мимо кэша запросов и содержит добавленный фильм.
+     */
+    @Test
+    void testInsertAllEvicts() {
+        transactionTemplate.execute(status -> movieJdbcRepository.insertAll(
+                List.of(new Movie("Mirror", "Andrei Tarkovsky", LocalDate.of(1975, 3, 7), Genre.DRAMA))));
+
+        assertThat(queryCacheHit(this::findPage)).isFalse();
+        assertThat(findPage()).extracting(MovieDto::getTitle).contains("Mirror");
+    }
+
+    /**
+     * Тест сброса кэшей после обновления фильма.
+     * @result Фильм и страница читаются мимо кэшей и содержат новое название.
+     */
+    @Test
+    void testUpdateEvicts() {
+        Movie changes = new Movie();
+        changes.setTitle("Ivan's Childhood (restored)");
+        transactionTemplate.execute(status -> movieJdbcRepository.update(movie.getId(), changes));
+
+        assertThat(entityCacheHit(this::findById)).isFalse();
+        assertThat(findById()).get().extracting(Movie::getTitle).isEqualTo("Ivan's Childhood (restored)");
+        assertThat(queryCacheHit(this::findPage)).isFalse();
+        assertThat(findPage()).extracting(MovieDto::getTitle).contains("Ivan's Childhood (restored)");
+    }
+
+    /**
+     * Тест сброса кэшей после удаления фильма.
+     * @result Фильм не находится, страница читается мимо кэша запросов и не содержит его.
+     */
+    @Test
+    void testDeleteByIdEvicts() {
+        transactionTemplate.execute(status -> movieJdbcRepository.deleteById(movie.getId()));
+
+        assertThat(entityCacheHit(this::findById)).isFalse();
+        assertThat(findById()).isEmpty();
+        assertThat(queryCacheHit(this::findPage)).isFalse();
+        assertThat(findPage()).extracting(MovieDto::getTitle).doesNotContain("Ivan's Childhood");
+    }
+
+    /**
+     * Тест сброса кэшей после удаления фильмов по списку идентификаторов.
+     * @result Фильм не находится, страница читается мимо кэша запросов и не содержит его.
+     */
+    @Test
+    void testDeleteAllByIdEvicts() {
+        transactionTemplate.execute(status -> movieJdbcRepository.deleteAllById(List.of(movie.getId())));
+
+        assertThat(entityCacheHit(this::findById)).isFalse();
+        assertThat(findById()).isEmpty();
+        assertThat(queryCacheHit(this::findPage)).isFalse();
+        assertThat(findPage()).extracting(MovieDto::getTitle).doesNotContain("Ivan's Childhood");
+    }
+
+    private Optional<Movie> findById() {
+        return movieRepository.findById(movie.getId());
+    }
+
+    private List<MovieDto> findPage() {
+        return movieRepository.findAllProjectedBy(PageRequest.of(0, 1000, Sort.by("id"))).getContent();
+    }
+
+    /**
+     * Проверка, что чтение фильма попало в кэш второго уровня. Вспомогательный метод.
+     *
+     * @param read чтение фильма
+     * @return {@code true}, если фильм взят из кэша
+     */
+    private boolean entityCacheHit(Supplier<?> read) {
+        long hits = statistics.getDomainDataRegionStatistics(Movie.CACHE_REGION).getHitCount();
+        read.get();
+        return statistics.getDomainDataRegionStatistics(Movie.CACHE_REGION).getHitCount() > hits;
+    }
+
+    /**
+     * Проверка, что запрос страницы попал в кэш запросов. Вспомогательный метод.
+     *
+     * @param read чтение страницы
+     * @return {@code true}, если результат запроса взят из кэша
+     */
+    private boolean queryCacheHit(Supplier<?> read) {
+        long hits = statistics.getQueryCacheHitCount();
+        read.get();
+        return statistics.getQueryCacheHitCount() > hits;
+    }
+}
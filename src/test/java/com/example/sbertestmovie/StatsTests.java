@@ -0,0 +1,99 @@
+package com.example.sbertestmovie;
+
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.entity.Movie;
+import com.example.sbertestmovie.stats.MovieStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatsTests {
+    private MovieStats movieStats;
+    private Movie wolfwalkers;
+
+    /**
+     * Инициализация статистики тестовыми фильмами перед каждым тестом.
+     */
+    @BeforeEach
+    void init() {
+        movieStats = new MovieStats();
+        wolfwalkers = new Movie("Wolfwalkers", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        movieStats.add(wolfwalkers);
+        movieStats.add(new Movie("Song of the Sea", "Tomm Moore", LocalDate.of(2014, 11, 6), Genre.ANIMATION));
+        movieStats.add(new Movie("Spirited Away", "Hayao Miyazaki", LocalDate.of(2001, 7, 20), Genre.ANIMATION));
+        movieStats.add(Genre.DRAMA, 2014, "Richard Linklater", 2);
+    }
+
+    /**
+     * Тест снимка статистики.
+     * @result Количества сгруппированы по жанрам, годам (по возрастанию) и режиссёрам (по убыванию количества).
+     */
+    @Test
+    void testSnapshot() {
+        MovieStatsDto stats = movieStats.snapshot(10);
+
+        assertThat(stats.getTotal()).isEqualTo(5);
+        assertThat(stats.getByGenre()).containsEntry(Genre.ANIMATION, 3L).containsEntry(Genre.DRAMA, 2L)
+                .containsEntry(Genre.ACTION, 0L);
+        assertThat(List.copyOf(stats.getByYear().keySet())).containsExactly(2001, 2014, 2020);
+        assertThat(stats.getByYear()).containsEntry(2014, 3L);
+        assertThat(List.copyOf(stats.getByDirector().keySet()))
+                .containsExactly("Richard Linklater", "Tomm Moore", "Hayao Miyazaki");
+    }
+
+    /**
+     * Тест ограничения количества режиссёров в снимке.
+     * @result В снимок попадают только режиссёры с наибольшим количеством фильмов.
+     */
+    @Test
+    void testSnapshotDirectorLimit() {
+        assertThat(movieStats.snapshot(1).getByDirector()).containsOnlyKeys("Richard Linklater");
+        assertThat(movieStats.snapshot(0).getByDirector()).isEmpty();
+    }
+
+    /**
+     * Тест изменения и удаления фильма.
+     * @result Фильм переносится между группами, а пустые группы исключаются из снимка.
+     */
+    @Test
+    void testReplaceAndRemove() {
+        Movie updated = new Movie("Wolfwalkers", "Ross Stewart", LocalDate.of(2020, 9, 12), Genre.FANTASY);
+        movieStats.replace(wolfwalkers, updated);
+        movieStats.remove(updated);
+
+        MovieStatsDto stats = movieStats.snapshot(10);
+        assertThat(stats.getTotal()).isEqualTo(4);
+        assertThat(stats.getByGenre()).containsEntry(Genre.ANIMATION, 2L).containsEntry(Genre.FANTASY, 0L);
+        assertThat(stats.getByYear()).doesNotContainKey(2020);
+        assertThat(stats.getByDirector()).doesNotContainKey("Ross Stewart").containsEntry("Tomm Moore", 1L);
+    }
+
+    /**
+     * Тест порядка режиссёров после изменений.
+     * @result Порядок режиссёров в снимке следует за изменением количества их фильмов, режиссёр без фильмов
+     * исключается, а после повторного добавления снова учитывается с начала.
+     */
+    @Test
+    void testDirectorOrderFollowsChanges() {
+        movieStats.add(Genre.ANIMATION, 2001, "Hayao Miyazaki", 2);
+        assertThat(List.copyOf(movieStats.snapshot(2).getByDirector().keySet()))
+                .containsExactly("Hayao Miyazaki", "Richard Linklater");
+
+        movieStats.add(Genre.ANIMATION, 2001, "Hayao Miyazaki", -3);
+        movieStats.add(Genre.ANIMATION, 2001, "Hayao Miyazaki", 1);
+        assertThat(movieStats.snapshot(10).getByDirector())
+                .containsExactly(Map.entry("Richard Linklater", 2L), Map.entry("Tomm Moore", 2L),
+                        Map.entry("Hayao Miyazaki", 1L));
+        assertThat(movieStats.snapshot(10).getByYear()).containsEntry(2001, 1L);
+
+        movieStats.clear();
+        movieStats.add(wolfwalkers);
+        assertThat(movieStats.snapshot(10).getByDirector()).containsExactly(Map.entry("Tomm Moore", 1L));
+    }
+}
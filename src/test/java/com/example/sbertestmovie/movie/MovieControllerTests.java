@@ -1,13 +1,27 @@
 package com.example.sbertestmovie.movie;
 
+import com.example.sbertestmovie.config.CborConfiguration;
 import com.example.sbertestmovie.controller.MovieController;
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.EstimatedPage;
+import com.example.sbertestmovie.dto.MovieBatchErrorDto;
+import com.example.sbertestmovie.dto.MovieBatchResultDto;
 import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
+import com.example.sbertestmovie.dto.MovieMultiGetDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.dto.MovieStatsDto;
+import com.example.sbertestmovie.dto.VersionedMovieDto;
 import com.example.sbertestmovie.entity.Genre;
 import com.example.sbertestmovie.service.MovieService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -15,23 +29,41 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(MovieController.class)
+@Import(CborConfiguration.class)
 public class MovieControllerTests {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @MockBean
     private MovieService movieService;
 
@@ -39,6 +71,7 @@ public class MovieControllerTests {
     private MovieDto movieDto2;
     private List<MovieDto> movieDtos;
     private Page<MovieDto> movieDtosPage;
+    private VersionedMovieDto versionedMovieDto1;
 
     @BeforeEach
     void setUp() {
@@ -47,6 +80,41 @@ public class MovieControllerTests {
 
         movieDtos = Arrays.asList(movieDto1, movieDto2);
         movieDtosPage = new PageImpl<>(movieDtos, PageRequest.of(0, 10), movieDtos.size());
+        versionedMovieDto1 = new VersionedMovieDto(movieDto1, 3L, Instant.parse("2024-05-01T10:15:30Z"));
+
+        stubCatalogVersion(new CatalogVersionDto(7L, Instant.parse("2024-05-02T08:00:00Z")));
+    }
+
+    /**
+     * Методы сервиса с проверкой версии каталога проверяют переданную версию и, если каталог изменился,
+     * вызывают соответствующие методы чтения. Вспомогательный метод.
+     *
+     * @param catalog версия каталога
+     */
+    private void stubCatalogVersion(CatalogVersionDto catalog) {
+        when(movieService.getPageIfModified(any(MovieFilterDto.class), any(Pageable.class), anyBoolean(), any()))
+                .thenAnswer(invocation -> {
+                    if (invocation.<Predicate<CatalogVersionDto>>getArgument(3).test(catalog)) {
+                        return null;
+                    }
+                    MovieFilterDto filter = invocation.getArgument(0);
+                    Pageable pageable = invocation.getArgument(1);
+                    if (!filter.isEmpty()) {
+                        return movieService.getAllFiltered(filter, pageable);
+                    }
+                    return invocation.<Boolean>getArgument(2)
+                            ? movieService.getAllPageableEstimated(pageable) : movieService.getAllPageable(pageable);
+                });
+        when(movieService.getAllAfterIfModified(anyString(), anyString(), anyInt(), any())).thenAnswer(invocation ->
+                invocation.<Predicate<CatalogVersionDto>>getArgument(3).test(catalog) ? null
+                        : movieService.getAllAfter(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+        when(movieService.streamPageIfModified(any(Pageable.class), any(), any())).thenAnswer(invocation -> {
+            if (invocation.<Predicate<CatalogVersionDto>>getArgument(1).test(catalog)) {
+                return false;
+            }
+            movieService.streamPage(invocation.getArgument(0), invocation.getArgument(2));
+            return true;
+        });
     }
 
     /**
@@ -69,23 +137,291 @@ public class MovieControllerTests {
                 .andExpect(jsonPath("$.content[1].title").value("Song of the Sea"));
     }
 
+    /**
+     * Тест потоковой выдачи большой страницы фильмов.
+     * @result Страница от {@code movies.page.stream-min-size} фильмов записывается по мере чтения, а тело ответа
+     * совпадает с JSON-представлением обычной страницы; страница в формате CBOR строится целиком.
+     */
+    @Test
+    public void findAllStreamedPageTest() throws Exception {
+        when(movieService.streamPageCountedIfModified(any(Pageable.class), any(), any())).thenAnswer(invocation -> {
+            if (invocation.<Predicate<CatalogVersionDto>>getArgument(1)
+                    .test(new CatalogVersionDto(7L, Instant.parse("2024-05-02T08:00:00Z")))) {
+                return OptionalLong.empty();
+            }
+            Consumer<MovieDto> consumer = invocation.getArgument(2);
+            movieDtos.forEach(consumer);
+            return OptionalLong.of(4502L);
+        });
+        when(movieService.getAllPageable(any(Pageable.class))).thenReturn(movieDtosPage);
+        String expected = objectMapper.writeValueAsString(new PageImpl<>(movieDtos, PageRequest.of(2, 2000), 4502));
+
+        mockMvc.perform(get("/movies")
+                        .param("page", "2")
+                        .param("size", "2000"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().json(expected, true));
+        mockMvc.perform(get("/movies")
+                        .param("size", "2000")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        verify(movieService).streamPageCountedIfModified(eq(PageRequest.of(2, 2000)), any(), any());
+        verify(movieService).getAllPageable(PageRequest.of(0, 2000));
+    }
+
+    /**
+     * Тест условного запроса потоковой страницы фильмов с актуальным ETag.
+     * @result Возвращается статус 304 без тела ответа, а фильмы страницы не читаются.
+     */
+    @Test
+    public void findAllStreamedPageNotModifiedTest() throws Exception {
+        when(movieService.streamPageCountedIfModified(any(Pageable.class), any(), any())).thenAnswer(invocation ->
+                invocation.<Predicate<CatalogVersionDto>>getArgument(1)
+                        .test(new CatalogVersionDto(7L, Instant.parse("2024-05-02T08:00:00Z")))
+                        ? OptionalLong.empty() : OptionalLong.of(0L));
+
+        mockMvc.perform(get("/movies")
+                        .param("size", "2000")
+                        .header("If-None-Match", "W/\"7-18f38514000\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Тест получения страницы фильмов в формате CBOR.
+     * @result Возвращается страница в формате CBOR, где жанр записан порядковым номером, а дата релиза — номером дня.
+     */
+    @Test
+    public void findAllCborTest() throws Exception {
+        when(movieService.getAllPageable(any(Pageable.class))).thenReturn(movieDtosPage);
+
+        MvcResult result = mockMvc.perform(get("/movies")
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn();
+
+        JsonNode first = new CBORMapper().readTree(result.getResponse().getContentAsByteArray())
+                .path("content").path(0);
+        assertEquals("Wolfwalkers", first.path("title").asText());
+        assertEquals(LocalDate.of(2020, 9, 12).toEpochDay(), first.path("releaseDate").asLong());
+        assertEquals(Genre.ANIMATION.ordinal(), first.path("genre").asInt());
+    }
+
+    /**
+     * Тест получения списка фильмов с фильтрацией.
+     * @result Параметры фильтрации передаются в сервис, и возвращается отфильтрованная страница {@link MovieDto}.
+     */
+    @Test
+    public void findAllFilteredTest() throws Exception {
+        MovieFilterDto filter = new MovieFilterDto(Genre.ANIMATION, "Tomm", null,
+                LocalDate.of(2010, 1, 1), null);
+        when(movieService.getAllFiltered(eq(filter), any(Pageable.class))).thenReturn(movieDtosPage);
+
+        mockMvc.perform(get("/movies")
+                        .param("genre", "ANIMATION")
+                        .param("director", "Tomm")
+                        .param("releasedFrom", "2010-01-01")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(movieDtos.size()));
+
+        verify(movieService, never()).getAllPageable(any(Pageable.class));
+    }
+
+    /**
+     * Тест получения списка фильмов с keyset-пагинацией.
+     * @result Возвращается срез объектов {@link MovieDto} с курсором следующего среза и без общего количества.
+     */
+    @Test
+    public void findAllAfterTest() throws Exception {
+        when(movieService.getAllAfter(eq(""), eq("title"), eq(2)))
+                .thenReturn(new MovieSliceDto(movieDtos, 2, true, "next-cursor"));
+
+        mockMvc.perform(get("/movies")
+                        .param("after", "")
+                        .param("sort", "title")
+                        .param("size", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(movieDtos.size()))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.next").value("next-cursor"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    /**
+     * Тест выгрузки всех фильмов в формате NDJSON.
+     * @result Каждый фильм, переданный сервисом, записывается в ответ отдельной JSON-строкой.
+     */
+    @Test
+    public void exportTest() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<MovieDto> consumer = invocation.getArgument(0);
+            movieDtos.forEach(consumer);
+            return null;
+        }).when(movieService).exportAll(any());
+
+        MvcResult mvcResult = mockMvc.perform(get("/movies/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"title\":\"Wolfwalkers\",\"director\":\"Tomm Moore\",\"releaseDate\":\"2020-09-12\",\"genre\":\"ANIMATION\"}\n"
+                                + "{\"title\":\"Song of the Sea\",\"director\":\"Tomm Moore\",\"releaseDate\":\"2014-11-06\",\"genre\":\"ANIMATION\"}\n"));
+    }
+
+    /**
+     * Тест потокового получения страницы фильмов в формате NDJSON.
+     * @result Фильмы страницы записываются в ответ отдельными JSON-строками без построения страницы.
+     */
+    @Test
+    public void findAllStreamTest() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<MovieDto> consumer = invocation.getArgument(1);
+            movieDtos.forEach(consumer);
+            return null;
+        }).when(movieService).streamPage(eq(PageRequest.of(1, 2)), any());
+
+        mockMvc.perform(get("/movies/stream")
+                        .param("page", "1")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(
+                        "{\"title\":\"Wolfwalkers\",\"director\":\"Tomm Moore\",\"releaseDate\":\"2020-09-12\",\"genre\":\"ANIMATION\"}\n"
+                                + "{\"title\":\"Song of the Sea\",\"director\":\"Tomm Moore\",\"releaseDate\":\"2014-11-06\",\"genre\":\"ANIMATION\"}\n"));
+
+        verify(movieService, never()).getAllPageable(any(Pageable.class));
+    }
+
+    /**
+     * Тест полнотекстового поиска фильмов.
+     * @result Возвращается список объектов {@link MovieDto} в порядке, полученном из сервиса.
+     */
+    @Test
+    public void searchTest() throws Exception {
+        when(movieService.search("moore", 20)).thenReturn(movieDtos);
+
+        mockMvc.perform(get("/movies/search")
+                        .param("q", "moore")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(movieDtos.size()))
+                .andExpect(jsonPath("$[0].title").value("Wolfwalkers"));
+    }
+
     /**
      * Тест поиска фильма по идентификатору.
      * @result Возвращается объект {@link MovieDto}, соответствующий найденной сущности фильма.
      */
     @Test
     public void findByIdTest() throws Exception {
-        when(movieService.findById(anyLong())).thenReturn(movieDto1);
+        when(movieService.findVersionedById(anyLong())).thenReturn(versionedMovieDto1);
 
         mockMvc.perform(get("/movies/{movieId}", 1L)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"3-18f33a6f1d0\""))
+                .andExpect(header().string("Last-Modified", "Wed, 01 May 2024 10:15:30 GMT"))
                 .andExpect(jsonPath("$.title").value("Wolfwalkers"))
                 .andExpect(jsonPath("$.director").value("Tomm Moore"))
                 .andExpect(jsonPath("$.releaseDate").value("2020-09-12"))
                 .andExpect(jsonPath("$.genre").value("ANIMATION"));
     }
 
+    /**
+     * Тест получения статистики каталога фильмов.
+     * @result Возвращается статистика, полученная из сервиса, с переданным ограничением количества режиссёров.
+     */
+    @Test
+    public void statsTest() throws Exception {
+        when(movieService.getStats(5)).thenReturn(new MovieStatsDto(2, Map.of(Genre.ANIMATION, 2L),
+                Map.of(2014, 1L, 2020, 1L), Map.of("Tomm Moore", 2L)));
+
+        mockMvc.perform(get("/movies/stats")
+                        .param("directors", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.byGenre.ANIMATION").value(2))
+                .andExpect(jsonPath("$.byYear.2014").value(1))
+                .andExpect(jsonPath("$.byDirector['Tomm Moore']").value(2));
+    }
+
+    /**
+     * Тест получения страницы фильмов с оценкой общего количества.
+     * @result Возвращается страница с оценочным общим количеством и признаком {@code approximate}.
+     */
+    @Test
+    public void findAllEstimatedTest() throws Exception {
+        when(movieService.getAllPageableEstimated(any(Pageable.class)))
+                .thenReturn(new EstimatedPage<>(movieDtos, PageRequest.of(0, 2), 1000, true));
+
+        mockMvc.perform(get("/movies")
+                        .param("size", "2")
+                        .param("count", "estimate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(movieDtos.size()))
+                .andExpect(jsonPath("$.totalElements").value(1000))
+                .andExpect(jsonPath("$.approximate").value(true));
+
+        verify(movieService, never()).getAllPageable(any(Pageable.class));
+    }
+
+    /**
+     * Тест проверки режима подсчёта общего количества фильмов.
+     * @result Неизвестный режим и оценка количества вместе с фильтрацией отклоняются со статусом 400,
+     * а фильмы не запрашиваются у сервиса.
+     */
+    @Test
+    public void findAllWrongCountTest() throws Exception {
+        mockMvc.perform(get("/movies")
+                        .param("count", "approximate"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/movies")
+                        .param("genre", "ANIMATION")
+                        .param("count", "estimate"))
+                .andExpect(status().isBadRequest());
+
+        verify(movieService, never()).getPageIfModified(any(MovieFilterDto.class), any(Pageable.class), anyBoolean(), any());
+    }
+
+    /**
+     * Тест условного запроса фильма с актуальным ETag.
+     * @result Возвращается статус 304 без тела ответа.
+     */
+    @Test
+    public void findByIdNotModifiedTest() throws Exception {
+        when(movieService.findVersionedById(anyLong())).thenReturn(versionedMovieDto1);
+
+        mockMvc.perform(get("/movies/{movieId}", 1L)
+                        .header("If-None-Match", "\"3-18f33a6f1d0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    /**
+     * Тест условного запроса списка фильмов с актуальной датой изменения каталога.
+     * @result Возвращается статус 304, а список фильмов не запрашивается у сервиса.
+     */
+    @Test
+    public void findAllNotModifiedTest() throws Exception {
+        mockMvc.perform(get("/movies")
+                        .header("If-Modified-Since", "Thu, 02 May 2024 08:00:00 GMT"))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(movieService, never()).getAllPageable(any(Pageable.class));
+    }
+
     /**
      * Тест создания нового фильма.
      * @result Новый фильм сохраняется через сервис, и возвращается объект {@link MovieDto} с данными созданного фильма.
@@ -104,6 +440,67 @@ public class MovieControllerTests {
                 .andExpect(jsonPath("$.genre").value("ANIMATION"));
     }
 
+    /**
+     * Тест пакетного создания фильмов.
+     * @result Возвращается количество созданных фильмов и ошибки по отдельным элементам пакета.
+     */
+    @Test
+    public void createAllTest() throws Exception {
+        when(movieService.createAll(anyList()))
+                .thenReturn(new MovieBatchResultDto(1, List.of(new MovieBatchErrorDto(1, "Ошибка"))));
+
+        mockMvc.perform(post("/movies/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"title\":\"Wolfwalkers\",\"director\":\"Tomm Moore\",\"releaseDate\":\"2020-09-12\",\"genre\":\"ANIMATION\"},{}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("Ошибка"));
+    }
+
+    /**
+     * Тест получения фильмов по списку идентификаторов в адресе запроса и в теле запроса.
+     * @result Фильмы возвращаются по идентификаторам в порядке запроса, отсутствующие идентификаторы перечислены отдельно.
+     */
+    @Test
+    public void findAllByIdTest() throws Exception {
+        Map<Long, MovieDto> movies = new LinkedHashMap<>();
+        movies.put(2L, movieDto2);
+        movies.put(1L, movieDto1);
+        when(movieService.findAllById(List.of(2L, 5L, 1L))).thenReturn(new MovieMultiGetDto(movies, List.of(5L)));
+
+        mockMvc.perform(get("/movies")
+                        .param("ids", "2,5,1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("{\"2\":{\"title\":\"Song of the Sea\"")))
+                .andExpect(jsonPath("$.movies.1.title").value("Wolfwalkers"))
+                .andExpect(jsonPath("$.missing[0]").value(5));
+        mockMvc.perform(post("/movies/by-ids")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2,5,1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.missing.length()").value(1));
+
+        verify(movieService, times(2)).findAllById(List.of(2L, 5L, 1L));
+        verify(movieService, never()).getAllPageable(any(Pageable.class));
+    }
+
+    /**
+     * Тест запроса фильмов по списку идентификаторов вместе с keyset-пагинацией.
+     * @result Запрос отклоняется со статусом 400, а фильмы не запрашиваются у сервиса.
+     */
+    @Test
+    public void findAllByIdWithAfterTest() throws Exception {
+        mockMvc.perform(get("/movies")
+                        .param("after", "")
+                        .param("ids", "1,2"))
+                .andExpect(status().isBadRequest());
+
+        verify(movieService, never()).findAllById(anyList());
+        verify(movieService, never()).getAllAfterIfModified(anyString(), anyString(), anyInt(), any());
+        verify(movieService, never()).getPageIfModified(any(MovieFilterDto.class), any(Pageable.class), anyBoolean(), any());
+    }
+
     /**
      * Тест обновления существующего фильма.
      * @result Фильм с указанным идентификатором обновляется через сервис, и возвращается обновленный объект {@link MovieDto}.
@@ -136,4 +533,20 @@ public class MovieControllerTests {
 
         verify(movieService).deleteById(1L);
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест пакетного удаления фильмов по списку идентификаторов.
+     * @result Сервис вызывается со всеми переданными идентификаторами, возвращается количество удалённых фильмов.
+     */
+    @Test
+    public void deleteAllTest() throws Exception {
+        when(movieService.deleteAllById(List.of(1L, 2L, 3L))).thenReturn(2);
+
+        mockMvc.perform(delete("/movies")
+                        .param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+
+        verify(movieService).deleteAllById(List.of(1L, 2L, 3L));
+    }
+}
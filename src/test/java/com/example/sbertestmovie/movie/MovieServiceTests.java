@@ -1,30 +1,61 @@
 package com.example.sbertestmovie.movie;
 
+import com.example.sbertestmovie.cache.MovieCache;
+import com.example.sbertestmovie.cache.MovieInvalidationBus;
+import com.example.sbertestmovie.dto.CatalogVersionDto;
+import com.example.sbertestmovie.dto.EstimatedPage;
+import com.example.sbertestmovie.dto.MovieBatchErrorDto;
+import com.example.sbertestmovie.dto.MovieBatchResultDto;
+import com.example.sbertestmovie.dto.MovieChangeDto;
+import com.example.sbertestmovie.dto.MovieCursor;
 import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.dto.MovieFilterDto;
 import com.example.sbertestmovie.dto.MovieMapper;
+import com.example.sbertestmovie.dto.MovieMultiGetDto;
+import com.example.sbertestmovie.dto.MovieSliceDto;
+import com.example.sbertestmovie.dto.MovieStatsDto;
 import com.example.sbertestmovie.entity.Genre;
 import com.example.sbertestmovie.entity.Movie;
 import com.example.sbertestmovie.exception.NotFoundAnythingException;
 import com.example.sbertestmovie.exception.WrongParametersException;
+import com.example.sbertestmovie.repository.MovieJdbcRepository;
 import com.example.sbertestmovie.repository.MovieRepository;
+import com.example.sbertestmovie.search.MovieSearchIndex;
+import com.example.sbertestmovie.stats.MovieCountEstimator;
+import com.example.sbertestmovie.stats.MovieStats;
+import com.example.sbertestmovie.service.MovieCreateCoalescer;
+import com.example.sbertestmovie.service.MovieService;
 import com.example.sbertestmovie.service.MovieServiceImpl;
+import io.micrometer.core.aop.CountedAspect;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.catchThrowable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,9 +67,30 @@ public class MovieServiceTests {
     @Mock
     private MovieRepository movieRepository;
 
+    @Mock
+    private MovieJdbcRepository movieJdbcRepository;
+
     @Mock
     private MovieMapper movieMapper;
 
+    @Mock
+    private MovieSearchIndex movieSearchIndex;
+
+    @Spy
+    private MovieCache movieCache = new MovieCache(100, Duration.ofMinutes(1), Duration.ZERO);
+
+    @Spy
+    private MovieStats movieStats = new MovieStats();
+
+    @Mock
+    private MovieCountEstimator movieCountEstimator;
+
+    @Mock
+    private MovieInvalidationBus movieInvalidationBus;
+
+    @Mock
+    private MovieCreateCoalescer movieCreateCoalescer;
+
     private Long movieId;
     private Movie movie;
     private Movie movie2;
@@ -54,7 +106,9 @@ public class MovieServiceTests {
         movieId = 1L;
         movie = new Movie("Wolfwalkers", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
         movie.setId(movieId);
+        movie.setVersion(0L);
         movie2 = new Movie("Song of the Sea", "Tomm Moore", LocalDate.of(2014, 11, 6), Genre.ANIMATION);
+        movie2.setVersion(0L);
         movieDto1 = new MovieDto("Wolfwalkers", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
         movieDto2 = new MovieDto("Song of the Sea", "Tomm Moore", LocalDate.of(2014, 11, 6), Genre.ANIMATION);
         movies = Arrays.asList(movie, movie2);
@@ -63,6 +117,25 @@ public class MovieServiceTests {
         movieDtosPage = new PageImpl<>(movieDtos, PageRequest.of(0, 10, Sort.by("title")), movieDtos.size());
     }
 
+    /**
+     * Тест получения страницы фильмов с проверкой версии каталога.
+     * @result Если каталог не изменился, страница не читается и возвращается {@code null};
+     * иначе возвращается страница из репозитория.
+     */
+    @Test
+    public void getPageIfModifiedTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+        MovieFilterDto filter = new MovieFilterDto(null, null, null, null, null);
+        CatalogVersionDto catalog = new CatalogVersionDto(7L, Instant.parse("2024-05-02T08:00:00Z"));
+        when(movieJdbcRepository.findCatalogVersion()).thenReturn(catalog);
+        when(movieRepository.findAllProjectedBy(pageable)).thenReturn(movieDtosPage);
+
+        assertNull(movieService.getPageIfModified(filter, pageable, false, catalog::equals));
+        verify(movieRepository, never()).findAllProjectedBy(pageable);
+
+        assertEquals(movieDtosPage, movieService.getPageIfModified(filter, pageable, false, version -> false));
+    }
+
     /**
      * Тест получения всех фильмов с поддержкой пагинации.
      * @result Возвращается страница объектов {@link MovieDto}, соответствующая данным, полученным из репозитория.
@@ -71,8 +144,7 @@ public class MovieServiceTests {
     public void findAllTest() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
 
-        when(movieRepository.findAll(pageable)).thenReturn(moviesPage);
-        when(movieMapper.toPageMovieDto(moviesPage)).thenReturn(movieDtosPage);
+        when(movieRepository.findAllProjectedBy(pageable)).thenReturn(movieDtosPage);
 
         Page<MovieDto> result = movieService.getAllPageable(pageable);
 
@@ -87,17 +159,264 @@ public class MovieServiceTests {
         assertEquals(movieDtos.size(), result.getNumberOfElements());
     }
 
+    /**
+     * Тест получения страницы фильмов с оценкой общего количества.
+     * @result Запрос {@code count(*)} не выполняется, общее количество берётся из оценки и помечается как приблизительное.
+     */
+    @Test
+    public void findAllEstimatedTest() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(movieRepository.findSliceProjectedBy(pageable)).thenReturn(new SliceImpl<>(movieDtos, pageable, true));
+        when(movieCountEstimator.estimate()).thenReturn(1000L);
+
+        EstimatedPage<MovieDto> result = movieService.getAllPageableEstimated(pageable);
+
+        assertEquals(movieDtos, result.getContent());
+        assertEquals(1000, result.getTotalElements());
+        assertEquals(500, result.getTotalPages());
+        assertThat(result.isApproximate()).isTrue();
+        verify(movieRepository, never()).findAllProjectedBy(any(Pageable.class));
+    }
+
+    /**
+     * Тест получения последней страницы фильмов с оценкой общего количества.
+     * @result Общее количество вычисляется точно по последней странице, оценка не используется.
+     */
+    @Test
+    public void findAllEstimatedLastPageTest() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(movieRepository.findSliceProjectedBy(pageable))
+                .thenReturn(new SliceImpl<>(List.of(movieDto1), pageable, false));
+
+        EstimatedPage<MovieDto> result = movieService.getAllPageableEstimated(pageable);
+
+        assertEquals(3, result.getTotalElements());
+        assertThat(result.isApproximate()).isFalse();
+        verifyNoInteractions(movieCountEstimator);
+    }
+
+    /**
+     * Тест получения страницы фильмов по фильтру.
+     * @result Фильтрация передаётся в репозиторий в виде условия выборки, и возвращается страница {@link MovieDto}.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAllFilteredTest() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+        MovieFilterDto filter = new MovieFilterDto(Genre.ANIMATION, "Tomm", null,
+                LocalDate.of(2010, 1, 1), LocalDate.of(2020, 12, 31));
+
+        when(movieRepository.findAllProjected(any(Specification.class), eq(pageable))).thenReturn(movieDtosPage);
+
+        assertEquals(movieDtosPage, movieService.getAllFiltered(filter, pageable));
+        verifyNoInteractions(movieMapper);
+    }
+
+    /**
+     * Тест получения страницы фильмов по фильтру с некорректным диапазоном дат.
+     * @result Генерируется исключение {@link WrongParametersException}, запрос в базу данных не выполняется.
+     */
+    @Test
+    public void findAllFilteredWrongDatesTest() {
+        MovieFilterDto filter = new MovieFilterDto(null, null, null,
+                LocalDate.of(2020, 1, 1), LocalDate.of(2010, 1, 1));
+
+        Throwable thrown = catchThrowable(() -> {
+            movieService.getAllFiltered(filter, PageRequest.of(0, 10));
+        });
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        verifyNoInteractions(movieRepository);
+    }
+
+    /**
+     * Тест получения первого среза фильмов с keyset-пагинацией.
+     * @result Срез запрашивается без подсчёта общего количества, а курсор следующего среза
+     *         указывает на последний фильм текущего среза.
+     */
+    @Test
+    public void findAllAfterFirstSliceTest() {
+        String next = MovieCursor.after(MovieCursor.SortField.TITLE, 2L, "Song of the Sea").encode();
+        MovieSliceDto movieSliceDto = new MovieSliceDto(movieDtos, 2, true, next);
+
+        when(movieJdbcRepository.findSliceAfter(MovieCursor.first(MovieCursor.SortField.TITLE), 2))
+                .thenReturn(movieSliceDto);
+
+        assertEquals(movieSliceDto, movieService.getAllAfter("", "title", 2));
+        verify(movieRepository, never()).count();
+        verifyNoInteractions(movieMapper);
+    }
+
+    /**
+     * Тест получения следующего среза фильмов по курсору.
+     * @result Срез выбирается keyset-запросом по позиции, закодированной в курсоре.
+     */
+    @Test
+    public void findAllAfterNextSliceTest() {
+        MovieCursor cursor = MovieCursor.after(MovieCursor.SortField.RELEASE_DATE, movieId, "2020-09-12");
+        String after = cursor.encode();
+        MovieSliceDto movieSliceDto = new MovieSliceDto(List.of(movieDto2), 2, false, null);
+
+        when(movieJdbcRepository.findSliceAfter(cursor, 2)).thenReturn(movieSliceDto);
+
+        assertEquals(movieSliceDto, movieService.getAllAfter(after, "id", 2));
+    }
+
+    /**
+     * Тест получения среза фильмов с некорректным курсором.
+     * @result Генерируется исключение {@link WrongParametersException}.
+     */
+    @Test
+    public void findAllAfterWrongCursorTest() {
+        Throwable thrown = catchThrowable(() -> {
+            movieService.getAllAfter("not a cursor", "id", 10);
+        });
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        assertEquals("Некорректный курсор страницы", thrown.getMessage());
+    }
+
+    /**
+     * Тест потокового получения страницы фильмов.
+     * @result Фильмы страницы передаются обработчику в виде {@link MovieDto}, а сортировка по неизвестному полю отклоняется.
+     */
+    @Test
+    public void streamPageTest() {
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("releaseDate"));
+        doAnswer(invocation -> {
+            Consumer<Movie> consumer = invocation.getArgument(1);
+            movies.forEach(consumer);
+            return null;
+        }).when(movieJdbcRepository).forEachInPage(eq(pageable), any());
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+        when(movieMapper.toMovieDto(movie2)).thenReturn(movieDto2);
+
+        List<MovieDto> streamed = new ArrayList<>();
+        movieService.streamPage(pageable, streamed::add);
+
+        assertEquals(movieDtos, streamed);
+        assertThat(catchThrowable(() -> movieService.streamPage(PageRequest.of(0, 2, Sort.by("rating")), streamed::add)))
+                .isInstanceOf(WrongParametersException.class);
+        verify(movieJdbcRepository, times(1)).forEachInPage(any(), any());
+    }
+
     /**
      * Тест поиска фильма по идентификатору.
      * @result Возвращается объект {@link MovieDto}, соответствующий найденной сущности фильма.
      */
     @Test
     public void findByIdTest() {
-        when(movieRepository.findById(movieId)).thenReturn(Optional.of(movie));
+        when(movieJdbcRepository.findById(movieId)).thenReturn(Optional.of(movie));
         when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
         assertEquals(movieDto1, movieService.findById(movieId));
     }
 
+    /**
+     * Тест повторного поиска фильма по идентификатору.
+     * @result Повторный запрос обслуживается из кэша без обращения к репозиторию.
+     */
+    @Test
+    public void findByIdCachedTest() {
+        when(movieJdbcRepository.findById(movieId)).thenReturn(Optional.of(movie));
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+
+        assertEquals(movieDto1, movieService.findById(movieId));
+        assertEquals(movieDto1, movieService.findById(movieId));
+
+        verify(movieJdbcRepository, times(1)).findById(movieId);
+        assertEquals(1, movieCache.stats().hitCount());
+        assertEquals(1, movieCache.stats().missCount());
+    }
+
+    /**
+     * Тест получения фильмов по списку идентификаторов.
+     * @result Промахи кэша загружаются одним запросом, фильмы возвращаются в порядке запроса,
+     * отсутствующие идентификаторы перечислены отдельно, а повторный запрос обслуживается из кэша.
+     */
+    @Test
+    public void findAllByIdTest() {
+        movie2.setId(2L);
+        when(movieJdbcRepository.findAllById(any())).thenReturn(List.of(movie, movie2));
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+        when(movieMapper.toMovieDto(movie2)).thenReturn(movieDto2);
+
+        MovieMultiGetDto result = movieService.findAllById(List.of(2L, 5L, 1L, 2L));
+        movieService.findAllById(List.of(1L, 2L));
+
+        assertEquals(List.of(2L, 1L), new ArrayList<>(result.getMovies().keySet()));
+        assertEquals(movieDto2, result.getMovies().get(2L));
+        assertEquals(List.of(5L), result.getMissing());
+        verify(movieJdbcRepository, times(1)).findAllById(any());
+        verify(movieJdbcRepository, never()).findById(any());
+    }
+
+    /**
+     * Тест получения фильмов по пустому списку идентификаторов.
+     * @result Генерируется исключение {@link WrongParametersException}, запрос к базе данных не выполняется.
+     */
+    @Test
+    public void findAllByIdErrorsTest() {
+        Throwable thrown = catchThrowable(() -> movieService.findAllById(List.of()));
+
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        verifyNoInteractions(movieRepository);
+    }
+
+    /**
+     * Тест сброса кэша при обновлении фильма.
+     * @result После обновления фильм снова загружается из репозитория.
+     */
+    @Test
+    public void updateEvictsCacheTest() {
+        when(movieJdbcRepository.findById(movieId)).thenReturn(Optional.of(movie));
+        when(movieMapper.toMovie(movieDto2)).thenReturn(movie);
+        when(movieJdbcRepository.update(movieId, movie)).thenReturn(Optional.of(new MovieChangeDto(movie, movie)));
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+
+        movieService.findById(movieId);
+        movieService.update(movieId, movieDto2);
+        movieService.findById(movieId);
+
+        verify(movieCache).evict(movieId, 0L);
+        assertEquals(2, movieCache.stats().missCount());
+    }
+
+    /**
+     * Тест кэширования фильма, прочитанного с отстающей реплики после обновления.
+     * @result Фильм с версией старше обновлённой возвращается, но не кэшируется, а фильм с актуальной версией кэшируется.
+     */
+    @Test
+    public void updateRejectsStaleCacheFillTest() {
+        Movie updated = new Movie("Wolfwalkers", "Ross Stewart", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        updated.setId(movieId);
+        updated.setVersion(1L);
+        when(movieMapper.toMovie(movieDto2)).thenReturn(updated);
+        when(movieJdbcRepository.update(movieId, updated)).thenReturn(Optional.of(new MovieChangeDto(movie, updated)));
+        when(movieJdbcRepository.findById(movieId)).thenReturn(Optional.of(movie), Optional.of(movie), Optional.of(updated));
+        when(movieMapper.toMovieDto(any(Movie.class))).thenReturn(movieDto1);
+
+        movieService.update(movieId, movieDto2);
+
+        assertEquals(0L, movieService.findVersionedById(movieId).getVersion());
+        assertEquals(0L, movieService.findVersionedById(movieId).getVersion());
+        assertEquals(1L, movieService.findVersionedById(movieId).getVersion());
+        assertEquals(1L, movieService.findVersionedById(movieId).getVersion());
+        verify(movieJdbcRepository, times(3)).findById(movieId);
+    }
+
+    /**
+     * Тест полнотекстового поиска фильмов.
+     * @result Фильмы загружаются одним запросом и возвращаются в порядке релевантности из индекса.
+     */
+    @Test
+    public void searchTest() {
+        movie2.setId(2L);
+        when(movieSearchIndex.search("tomm", 10)).thenReturn(new long[]{2L, movieId});
+        when(movieRepository.findAllById(List.of(2L, movieId))).thenReturn(movies);
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+        when(movieMapper.toMovieDto(movie2)).thenReturn(movieDto2);
+
+        assertEquals(List.of(movieDto2, movieDto1), movieService.search("tomm", 10));
+    }
+
     /**
      * Тест создания нового фильма.
      * @result Новый фильм сохраняется в базе данных, и возвращается объект {@link MovieDto} с данными созданного фильма.
@@ -108,6 +427,25 @@ public class MovieServiceTests {
         when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
         when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
         assertEquals(movieDto1, movieService.create(movieDto1));
+        verify(movieSearchIndex).index(movie);
+    }
+
+    /**
+     * Тест создания фильма при включённом объединении созданий.
+     * @result Фильм вставляется через {@link MovieCreateCoalescer}, репозиторий JPA не используется.
+     */
+    @Test
+    public void saveCoalescedTest() {
+        when(movieCreateCoalescer.isEnabled()).thenReturn(true);
+        when(movieCreateCoalescer.insert(movie)).thenReturn(movie);
+        when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
+        when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
+
+        assertEquals(movieDto1, movieService.create(movieDto1));
+
+        verify(movieSearchIndex).index(movie);
+        verify(movieInvalidationBus).publishCreated(movie);
+        verifyNoInteractions(movieRepository);
     }
 
     /**
@@ -149,17 +487,61 @@ public class MovieServiceTests {
         assertEquals("Неправильно заполнены поля создаваемого фильма", thrown.getMessage());
     }
 
+    /**
+     * Тест пакетного создания фильмов.
+     * @result Корректные фильмы вставляются пакетами заданного размера, а некорректный элемент
+     *         попадает в список ошибок со своим порядковым номером.
+     */
+    @Test
+    public void saveAllTest() {
+        MovieDto wrongDto = new MovieDto("", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        when(movieJdbcRepository.getBatchSize()).thenReturn(1);
+        when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
+        when(movieMapper.toMovie(movieDto2)).thenReturn(movie2);
+        when(movieJdbcRepository.insertAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MovieBatchResultDto result = movieService.createAll(Arrays.asList(movieDto1, wrongDto, movieDto2));
+
+        assertEquals(2, result.getCreated());
+        assertEquals(List.of(new MovieBatchErrorDto(1, "Неправильно заполнены поля создаваемого фильма")),
+                result.getErrors());
+        verify(movieJdbcRepository).insertAll(List.of(movie));
+        verify(movieJdbcRepository).insertAll(List.of(movie2));
+    }
+
+    /**
+     * Тест пакетного создания фильмов с ошибкой при вставке пакета.
+     * @result Пакет вставляется повторно по одному фильму, и ошибка относится только к проблемному элементу.
+     */
+    @Test
+    public void saveAllBatchErrorTest() {
+        List<Movie> batch = Arrays.asList(movie, movie2);
+        when(movieJdbcRepository.getBatchSize()).thenReturn(2);
+        when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
+        when(movieMapper.toMovie(movieDto2)).thenReturn(movie2);
+        when(movieJdbcRepository.insertAll(batch)).thenThrow(new RuntimeException());
+        when(movieJdbcRepository.insertAll(List.of(movie))).thenReturn(List.of(movie));
+        when(movieJdbcRepository.insertAll(List.of(movie2))).thenThrow(new RuntimeException());
+
+        MovieBatchResultDto result = movieService.createAll(movieDtos);
+
+        assertEquals(1, result.getCreated());
+        assertEquals(List.of(new MovieBatchErrorDto(1, "Не удалось создать фильм")), result.getErrors());
+    }
+
     /**
      * Тест обновления существующего фильма.
      * @result Фильм с указанным идентификатором обновляется и возвращается обновленный объект {@link MovieDto}.
      */
     @Test
     public void updateTest() {
-        when(movieRepository.findById(movieId)).thenReturn(Optional.of(movie));
-        when(movieRepository.save(movie)).thenReturn(movie);
+        when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
+        when(movieJdbcRepository.update(movieId, movie)).thenReturn(Optional.of(new MovieChangeDto(movie, movie)));
         when(movieMapper.toMovieDto(movie)).thenReturn(movieDto1);
 
         assertEquals(movieDto1, movieService.update(movieId, movieDto1));
+        verify(movieRepository, never()).findById(movieId);
+        verify(movieRepository, never()).save(any(Movie.class));
     }
 
     /**
@@ -168,7 +550,8 @@ public class MovieServiceTests {
      */
     @Test
     public void updateErrorsTest() {
-        when(movieRepository.findById(movieId)).thenReturn(Optional.empty());
+        when(movieMapper.toMovie(movieDto1)).thenReturn(movie);
+        when(movieJdbcRepository.update(movieId, movie)).thenReturn(Optional.empty());
 
         Throwable thrown = catchThrowable(() -> {
             movieService.update(movieId, movieDto1);
@@ -178,18 +561,130 @@ public class MovieServiceTests {
         assertEquals("Фильм с введенным id не найден", thrown.getMessage());
     }
 
+    /**
+     * Тест метрик сервиса.
+     * @result Длительность вызовов записывается в таймер {@code movies.service}, а исключение
+     *         учитывается в счётчике {@code movies.service.errors} с тегом типа исключения.
+     */
+    @Test
+    public void metricsTest() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(movieService);
+        proxyFactory.addAspect(new TimedAspect(registry));
+        proxyFactory.addAspect(new CountedAspect(registry));
+        MovieService instrumentedService = proxyFactory.getProxy();
+        when(movieJdbcRepository.findById(movieId)).thenReturn(Optional.empty());
+
+        catchThrowable(() -> instrumentedService.findById(movieId));
+
+        assertEquals(1, registry.get("movies.service")
+                .tag("method", "findById")
+                .tag("exception", "NotFoundAnythingException")
+                .timer().count());
+        assertEquals(1.0, registry.get("movies.service.errors")
+                .tag("method", "findById")
+                .tag("exception", "NotFoundAnythingException")
+                .counter().count());
+    }
+
     /**
      * Тест удаления фильма по идентификатору.
      * @result Фильм с указанным идентификатором удаляется из базы данных.
      */
     @Test
     public void deleteTest() {
-        when(movieRepository.existsById(movieId)).thenReturn(true);
+        when(movieJdbcRepository.deleteById(movieId)).thenReturn(Optional.of(movie));
 
         movieService.deleteById(movieId);
 
-        verify(movieRepository).deleteById(movieId);
+        verify(movieJdbcRepository).deleteById(movieId);
+        verify(movieSearchIndex).remove(movieId);
+        verify(movieStats).remove(movie);
+
+        verifyNoInteractions(movieRepository);
+    }
+
+    /**
+     * Тест удаления несуществующего фильма.
+     * @result Генерируется исключение {@link NotFoundAnythingException}, дополнительные запросы не выполняются.
+     */
+    @Test
+    public void deleteErrorsTest() {
+        when(movieJdbcRepository.deleteById(movieId)).thenReturn(Optional.empty());
+
+        Throwable thrown = catchThrowable(() -> movieService.deleteById(movieId));
+
+        assertThat(thrown).isInstanceOf(NotFoundAnythingException.class);
+        assertEquals("Фильм с введенным id не найден", thrown.getMessage());
+        verify(movieJdbcRepository).deleteById(movieId);
+        verifyNoMoreInteractions(movieJdbcRepository);
+        verifyNoInteractions(movieSearchIndex, movieStats);
+    }
+
+    /**
+     * Тест пакетного удаления фильмов.
+     * @result Повторяющиеся идентификаторы удаляются одним запросом, фильмы убираются из кэша и индекса,
+     * а другим экземплярам приложения публикуется удаление.
+     */
+    @Test
+    public void deleteAllByIdTest() {
+        Movie movie3 = new Movie("Spirited Away", "Hayao Miyazaki", LocalDate.of(2001, 7, 20), Genre.ANIMATION);
+        movie3.setId(3L);
+        movie3.setVersion(4L);
+        when(movieJdbcRepository.deleteAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(movie, movie3));
+
+        assertEquals(2, movieService.deleteAllById(List.of(1L, 2L, 2L, 3L)));
+
+        verify(movieJdbcRepository).deleteAllById(List.of(1L, 2L, 3L));
+        verify(movieCache).evict(3L, 5L);
+        verify(movieSearchIndex).remove(3L);
+        verify(movieStats).remove(movie3);
+        verify(movieInvalidationBus).publishDeleted(movie3);
+    }
+
+    /**
+     * Тест пакетного удаления с пустым списком идентификаторов.
+     * @result Генерируется исключение {@link WrongParametersException}, запрос к базе данных не выполняется.
+     */
+    @Test
+    public void deleteAllByIdErrorsTest() {
+        Throwable thrown = catchThrowable(() -> movieService.deleteAllById(List.of()));
+
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
+        verifyNoInteractions(movieJdbcRepository);
+    }
 
-        verifyNoMoreInteractions(movieRepository);
+    /**
+     * Тест обновления статистики при изменении жанра и даты релиза фильма.
+     * @result Фильм переносится из прежних жанра и года в новые, общее количество не меняется.
+     */
+    @Test
+    public void updateStatsTest() {
+        Movie updated = new Movie("Wolfwalkers", "Tomm Moore", LocalDate.of(2021, 1, 1), Genre.FANTASY);
+        updated.setId(movieId);
+        updated.setVersion(1L);
+        MovieDto patch = new MovieDto(null, null, LocalDate.of(2021, 1, 1), Genre.FANTASY);
+        when(movieMapper.toMovie(patch)).thenReturn(updated);
+        when(movieJdbcRepository.update(movieId, updated)).thenReturn(Optional.of(new MovieChangeDto(movie, updated)));
+        movieStats.add(movie);
+
+        movieService.update(movieId, patch);
+
+        MovieStatsDto stats = movieService.getStats(10);
+        assertEquals(1, stats.getTotal());
+        assertEquals(0, stats.getByGenre().get(Genre.ANIMATION));
+        assertEquals(1, stats.getByGenre().get(Genre.FANTASY));
+        assertEquals(Map.of(2021, 1L), stats.getByYear());
+    }
+
+    /**
+     * Тест получения статистики с некорректным количеством режиссёров.
+     * @result Генерируется исключение {@link WrongParametersException}.
+     */
+    @Test
+    public void getStatsErrorsTest() {
+        Throwable thrown = catchThrowable(() -> movieService.getStats(-1));
+
+        assertThat(thrown).isInstanceOf(WrongParametersException.class);
     }
 }
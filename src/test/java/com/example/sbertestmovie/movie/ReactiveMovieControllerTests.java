@@ -0,0 +1,124 @@
+package com.example.sbertestmovie.movie;
+
+import com.example.sbertestmovie.controller.ReactiveMovieController;
+import com.example.sbertestmovie.dto.MovieDto;
+import com.example.sbertestmovie.entity.Genre;
+import com.example.sbertestmovie.service.ReactiveMovieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveMovieController.class)
+@ActiveProfiles("reactive")
+public class ReactiveMovieControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveMovieService reactiveMovieService;
+
+    private MovieDto movieDto1;
+    private MovieDto movieDto2;
+
+    @BeforeEach
+    void setUp() {
+        movieDto1 = new MovieDto("Wolfwalkers", "Tomm Moore", LocalDate.of(2020, 9, 12), Genre.ANIMATION);
+        movieDto2 = new MovieDto("Song of the Sea", "Tomm Moore", LocalDate.of(2014, 11, 6), Genre.ANIMATION);
+    }
+
+    /**
+     * Тест получения страницы фильмов.
+     * @result Возвращается JSON-массив объектов {@link MovieDto}, полученных из сервиса.
+     */
+    @Test
+    public void findAllTest() {
+        when(reactiveMovieService.getAll(0, 10)).thenReturn(Flux.just(movieDto1, movieDto2));
+
+        webTestClient.get().uri("/movies?page=0&size=10")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].title").isEqualTo("Wolfwalkers")
+                .jsonPath("$[1].title").isEqualTo("Song of the Sea");
+    }
+
+    /**
+     * Тест потоковой выгрузки фильмов в формате NDJSON.
+     * @result Каждый фильм передаётся отдельной строкой в порядке, полученном из сервиса.
+     */
+    @Test
+    public void exportTest() {
+        when(reactiveMovieService.exportAll()).thenReturn(Flux.just(movieDto1, movieDto2));
+
+        webTestClient.get().uri("/movies/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(MovieDto.class).isEqualTo(List.of(movieDto1, movieDto2));
+    }
+
+    /**
+     * Тест получения фильма по идентификатору.
+     * @result Возвращается объект {@link MovieDto} с данными фильма.
+     */
+    @Test
+    public void findTest() {
+        when(reactiveMovieService.findById(1L)).thenReturn(Mono.just(movieDto1));
+
+        webTestClient.get().uri("/movies/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(MovieDto.class).isEqualTo(movieDto1);
+    }
+
+    /**
+     * Тест создания нового фильма.
+     * @result Возвращается объект {@link MovieDto} созданного фильма.
+     */
+    @Test
+    public void createTest() {
+        when(reactiveMovieService.create(any(MovieDto.class))).thenReturn(Mono.just(movieDto1));
+
+        webTestClient.post().uri("/movies")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(movieDto1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(MovieDto.class).isEqualTo(movieDto1);
+
+        verify(reactiveMovieService, times(1)).create(eq(movieDto1));
+    }
+
+    /**
+     * Тест удаления фильма по идентификатору.
+     * @result Сервис вызывается с переданным идентификатором, возвращается статус 200.
+     */
+    @Test
+    public void deleteTest() {
+        when(reactiveMovieService.deleteById(1L)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/movies/1")
+                .exchange()
+                .expectStatus().isOk();
+
+        verify(reactiveMovieService, times(1)).deleteById(1L);
+    }
+}